@@ -0,0 +1,68 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.ProductCatalog;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads while other threads keep changing stock, as during a checkout rush. Compare the
+ * {@code browse} score of {@code browseDuringCheckout} with {@code browseOnly}: with
+ * {@code maxStalenessMs=0} every read after a change rebuilds the snapshot, with a staleness
+ * bound the background publisher does that and reads stay as cheap as without checkouts.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+
+    @Param({"0", "100"})
+    public long maxStalenessMs;
+
+    private ProductRepository productRepository;
+    private ProductCatalog productCatalog;
+
+    @Setup
+    public void setUp() {
+        productRepository = Fixtures.productRepository(event -> {
+            if (event instanceof StockChangedEvent stockChanged && productCatalog != null) {
+                productCatalog.onStockChanged(stockChanged);
+            }
+        });
+        productCatalog = new ProductCatalog(productRepository, Fixtures.objectMapper(), maxStalenessMs);
+    }
+
+    @TearDown
+    public void tearDown() {
+        productCatalog.shutdown();
+    }
+
+    @Benchmark
+    @Group("browseOnly")
+    @GroupThreads(4)
+    public byte[] browseAlone() {
+        return productCatalog.current().getJson();
+    }
+
+    @Benchmark
+    @Group("browseDuringCheckout")
+    @GroupThreads(4)
+    public byte[] browse() {
+        return productCatalog.current().getJson();
+    }
+
+    @Benchmark
+    @Group("browseDuringCheckout")
+    @GroupThreads(4)
+    public boolean checkout() {
+        long productId = ThreadLocalRandom.current().nextLong(1, Fixtures.PRODUCT_COUNT + 1);
+        boolean reserved = productRepository.tryReserveStock(productId, 1);
+        if (reserved) {
+            productRepository.releaseStock(productId, 1);
+        }
+        return reserved;
+    }
+}
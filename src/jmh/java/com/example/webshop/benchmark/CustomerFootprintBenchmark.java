@@ -0,0 +1,64 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Order;
+import com.example.webshop.repository.CustomerRegistry;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory retained per stored order when repeat customers share one {@link CustomerInfo}, against
+ * each order keeping its own copy. Every order gets freshly built customer strings, as parsed
+ * from a request body, from a pool of {@code customers} customers. The interesting output is
+ * the secondary {@code heapBytesPerOrder} counter, not the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CustomerFootprintBenchmark {
+
+    @Param({"copies", "shared"})
+    public String customerInfo;
+
+    @Param({"1000000"})
+    public int orders;
+
+    @Param({"20000"})
+    public int customers;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerOrder;
+    }
+
+    @Benchmark
+    public long fill(Footprint footprint) {
+        long heapBefore = Benchmarks.usedHeapBytes();
+
+        CustomerRegistry customerRegistry = "shared".equals(customerInfo)
+                ? new CustomerRegistry()
+                : new CustomerRegistry() {
+                    @Override
+                    public CustomerInfo canonicalize(CustomerInfo customerInfo) {
+                        return customerInfo;
+                    }
+                };
+        OrderRepository orderRepository = new OrderRepository(Fixtures.NO_EVENTS, new HeapOrderStore(),
+                customerRegistry);
+        for (int i = 0; i < orders; i++) {
+            Order order = Fixtures.order(null, 3);
+            order.setCustomerInfo(Fixtures.customer(i % customers));
+            orderRepository.save(order);
+        }
+
+        footprint.heapBytesPerOrder = (Benchmarks.usedHeapBytes() - heapBefore) / orders;
+        return orderRepository.count();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.metrics.CheckoutMetrics;
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.model.Product;
+import com.example.webshop.repository.CompactOrderStore;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.JdbcOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.OrderStore;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.OrderService;
+import com.example.webshop.service.ProductService;
+import com.example.webshop.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds the service graph by hand, the same way the unit tests do, so benchmarks measure the
+ * application code without a Spring context around it.
+ */
+final class Fixtures {
+    static final ApplicationEventPublisher NO_EVENTS = event -> { };
+    static final int PRODUCT_COUNT = 8;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Seeded product repository with enough stock that benchmarks never run out.
+     */
+    static ProductRepository productRepository(ApplicationEventPublisher publisher) {
+        ProductRepository productRepository = new ProductRepository(publisher);
+        for (Product product : productRepository.findAll()) {
+            productRepository.updateStock(product.getId(), Integer.MAX_VALUE / 2);
+        }
+        return productRepository;
+    }
+
+    static OrderService orderService(ProductRepository productRepository, OrderRepository orderRepository) {
+        ProductService productService = new ProductService(productRepository);
+        return new OrderService(orderRepository, productService, new CheckoutMetrics(new SimpleMeterRegistry()),
+                reservationService(productService));
+    }
+
+    static ReservationService reservationService(ProductService productService) {
+        return new ReservationService(productService, NO_EVENTS, 600, 100);
+    }
+
+    static OrderService orderService() {
+        return orderService(productRepository(NO_EVENTS), new OrderRepository(NO_EVENTS, new HeapOrderStore()));
+    }
+
+    /**
+     * An empty order store of the given {@code webshop.orders.storage} layout. A {@code jdbc}
+     * store uses its own in-memory H2 database and must be closed.
+     */
+    static OrderStore orderStore(String storage) {
+        return switch (storage) {
+            case "objects" -> new HeapOrderStore();
+            case "compact" -> new CompactOrderStore();
+            case "jdbc" -> new JdbcOrderStore("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                    "sa", "", 8, 256);
+            default -> throw new IllegalArgumentException("Unknown order storage: " + storage);
+        };
+    }
+
+    static OrderRequest orderRequest(int items) {
+        List<OrderItemRequest> itemRequests = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemRequests.add(new OrderItemRequest((long) (i % PRODUCT_COUNT) + 1, 1));
+        }
+        return new OrderRequest(customer(1), itemRequests);
+    }
+
+    static final Money ITEM_PRICE = Money.of("499.99");
+
+    static Order order(Long id, int items) {
+        List<OrderItem> orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            orderItems.add(new OrderItem((long) (i % PRODUCT_COUNT) + 1, 1 + i, ITEM_PRICE));
+        }
+        long n = id == null ? System.nanoTime() : id;
+        return new Order(id, customer(n), orderItems, ITEM_PRICE.times(items), LocalDateTime.now());
+    }
+
+    static CustomerInfo customer(long n) {
+        return new CustomerInfo("Customer " + n, n + " Main Street, Stockholm", "customer" + n + "@example.com");
+    }
+
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of totalling an order: the same lines summed as {@code double}, as {@link Money} minor
+ * units, and as {@link BigDecimal}, the usual exact alternative.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    @Param({"10"})
+    public int lines;
+
+    private double[] doublePrices;
+    private long[] minorPrices;
+    private Money[] moneyPrices;
+    private BigDecimal[] decimalPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        doublePrices = new double[lines];
+        minorPrices = new long[lines];
+        moneyPrices = new Money[lines];
+        decimalPrices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long minorUnits = 100 + random.nextInt(1_500_000);
+            minorPrices[i] = minorUnits;
+            moneyPrices[i] = Money.ofMinor(minorUnits);
+            decimalPrices[i] = moneyPrices[i].toBigDecimal();
+            doublePrices[i] = decimalPrices[i].doubleValue();
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public double doubleTotal() {
+        double total = 0.0;
+        for (int i = 0; i < lines; i++) {
+            total += doublePrices[i] * quantities[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnitsTotal() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Math.addExact(total, Money.lineTotal(minorPrices[i], quantities[i]));
+        }
+        return total;
+    }
+
+    /**
+     * The checkout path: prices held as {@link Money}, summed as primitives, wrapped once.
+     */
+    @Benchmark
+    public Money moneyTotal() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Math.addExact(total, Money.lineTotal(moneyPrices[i].getMinorUnits(), quantities[i]));
+        }
+        return Money.ofMinor(total);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+}
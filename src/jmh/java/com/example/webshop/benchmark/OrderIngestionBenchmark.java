@@ -0,0 +1,91 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.persistence.PersistenceManager;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.OrderIngestionPipeline;
+import com.example.webshop.service.OrderService;
+import com.example.webshop.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable order creation under concurrent load: one log fsync per order versus the group-commit
+ * pipeline, which fsyncs once per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderIngestionBenchmark {
+
+    @Param({"per-request", "batched"})
+    public String mode;
+
+    private Path directory;
+    private PersistenceManager persistence;
+    private OrderService orderService;
+    private OrderIngestionPipeline pipeline;
+    private OrderRequest orderRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ingestion-bench");
+        PersistenceManager[] listener = new PersistenceManager[1];
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof OrderStoringEvent orderStoring) {
+                listener[0].onOrderStoring(orderStoring);
+            } else if (event instanceof StockChangedEvent stockChanged && listener[0] != null) {
+                listener[0].onStockChanged(stockChanged);
+            }
+        };
+        ProductRepository productRepository = Fixtures.productRepository(publisher);
+        OrderRepository orderRepository = new OrderRepository(publisher, new HeapOrderStore());
+        // The background fsync is pushed far out so every sync in the run comes from the code under test
+        persistence = new PersistenceManager(productRepository, orderRepository,
+                Fixtures.reservationService(new ProductService(productRepository)), Fixtures.objectMapper(),
+                directory.toString(), 60_000, 24 * 3600);
+        listener[0] = persistence;
+        orderService = Fixtures.orderService(productRepository, orderRepository);
+        if ("batched".equals(mode)) {
+            pipeline = new OrderIngestionPipeline(orderService,
+                    new StaticListableBeanFactory(Map.of("persistence", persistence))
+                            .getBeanProvider(PersistenceManager.class),
+                    256, 0, 65536);
+        }
+        orderRequest = Fixtures.orderRequest(2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+        persistence.close();
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Order createOrder() throws IOException {
+        if (pipeline != null) {
+            orderService.validateOrderRequest(orderRequest);
+            return pipeline.submit(orderRequest).join();
+        }
+        Order order = orderService.createOrder(orderRequest);
+        persistence.sync();
+        return order;
+    }
+}
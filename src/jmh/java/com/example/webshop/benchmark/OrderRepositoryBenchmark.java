@@ -0,0 +1,77 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.Order;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.OrderStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository operations on each order storage layout. {@code saveFromEightThreads} shows how
+ * concurrent saves scale, which for {@code jdbc} is where group commit pays off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderRepositoryBenchmark {
+
+    @Param({"objects", "compact", "jdbc"})
+    public String storage;
+
+    @Param({"100000"})
+    public int orders;
+
+    private OrderStore orderStore;
+    private OrderRepository orderRepository;
+    private Order template;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        orderStore = Fixtures.orderStore(storage);
+        orderRepository = new OrderRepository(Fixtures.NO_EVENTS, orderStore);
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(Fixtures.order(null, 3));
+        }
+        template = Fixtures.order(null, 3);
+    }
+
+    @Benchmark
+    public Order save() {
+        return orderRepository.save(new Order(null, template.getCustomerInfo(), template.getItems(),
+                template.getTotalAmount(), template.getOrderDate()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        if (orderStore instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Order saveFromEightThreads() {
+        return save();
+    }
+
+    @Benchmark
+    public Optional<Order> findById() {
+        return orderRepository.findById(ThreadLocalRandom.current().nextLong(1, orders + 1));
+    }
+
+    @Benchmark
+    public List<Order> findPage() {
+        return orderRepository.findPage(ThreadLocalRandom.current().nextLong(0, orders - 50), 50);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Order> findAll() {
+        return orderRepository.findAll();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout path: {@link OrderService#createOrder} for single and multi-item carts, on one thread
+ * and with eight threads reserving stock from the same products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderServiceBenchmark {
+
+    @Param({"1", "5"})
+    public int items;
+
+    private OrderService orderService;
+    private OrderRequest orderRequest;
+
+    // Recreated per iteration so the order store does not keep growing across the run
+    @Setup(Level.Iteration)
+    public void setUp() {
+        orderService = Fixtures.orderService();
+        orderRequest = Fixtures.orderRequest(items);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Order createOrderUncontended() {
+        return orderService.createOrder(orderRequest);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Order createOrderContended() {
+        return orderService.createOrder(orderRequest);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory retained per stored order by each order storage layout. The interesting output is the
+ * secondary {@code heapBytesPerOrder} and {@code directBytesPerOrder} counters, not the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrderStorageFootprintBenchmark {
+
+    @Param({"objects", "compact"})
+    public String storage;
+
+    @Param({"1000000"})
+    public int orders;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long heapBytesPerOrder;
+        public long directBytesPerOrder;
+    }
+
+    @Benchmark
+    public long fill(Footprint footprint) {
+        long heapBefore = Benchmarks.usedHeapBytes();
+        long directBefore = Benchmarks.directBufferBytes();
+
+        OrderRepository orderRepository = new OrderRepository(Fixtures.NO_EVENTS, Fixtures.orderStore(storage));
+        for (int i = 0; i < orders; i++) {
+            orderRepository.save(Fixtures.order(null, 3));
+        }
+
+        footprint.heapBytesPerOrder = (Benchmarks.usedHeapBytes() - heapBefore) / orders;
+        footprint.directBytesPerOrder = (Benchmarks.directBufferBytes() - directBefore) / orders;
+        return orderRepository.count();
+    }
+}
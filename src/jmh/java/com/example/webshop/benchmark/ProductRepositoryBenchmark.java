@@ -0,0 +1,34 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.Product;
+import com.example.webshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductRepositoryBenchmark {
+
+    private ProductRepository productRepository;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        productRepository = Fixtures.productRepository(Fixtures.NO_EVENTS);
+    }
+
+    @Benchmark
+    public Optional<Product> findById() {
+        nextId = nextId % Fixtures.PRODUCT_COUNT + 1;
+        return productRepository.findById(nextId);
+    }
+
+    @Benchmark
+    public List<Product> findAll() {
+        return productRepository.findAll();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over a synthetic catalog. Sample-time mode reports percentiles, so p99 is read
+ * directly from the results. Names and descriptions draw words from a fixed vocabulary with a
+ * skewed distribution, so common words match large parts of the catalog and rare ones few.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ProductSearchBenchmark {
+    private static final int VOCABULARY_SIZE = 20_000;
+
+    @Param({"1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private String[] vocabulary;
+    private SplittableRandom random;
+    private long version;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = word(i);
+        }
+        List<Product> catalog = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            catalog.add(new Product(id, words(3), words(12), Money.ofMinor(1_000 + random.nextInt(1_000_000)),
+                    null, random.nextInt(10)));
+        }
+        index = new ProductSearchIndex(catalog);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits rareWord() {
+        return index.search(vocabulary[VOCABULARY_SIZE / 2 + random.nextInt(VOCABULARY_SIZE / 2)],
+                null, null, false, Long.MIN_VALUE, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits commonWordInStock() {
+        return index.search(vocabulary[random.nextInt(10)], null, null, true, Long.MIN_VALUE, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits twoWordPrefix() {
+        String first = vocabulary[random.nextInt(200)];
+        String second = vocabulary[random.nextInt(2_000)];
+        return index.search(first + " " + second.substring(0, Math.min(3, second.length())),
+                null, null, false, Long.MIN_VALUE, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits priceRangeInStock() {
+        long min = 1_000 + random.nextInt(900_000);
+        return index.search(null, Money.ofMinor(min), Money.ofMinor(min + 5_000), true, Long.MIN_VALUE, 20);
+    }
+
+    @Benchmark
+    public void stockUpdate() {
+        index.updateStock(new StockLevel(1 + (long) random.nextInt(products), random.nextInt(3), ++version));
+    }
+
+    private String words(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            // Squaring a uniform value favours low ranks, a rough stand-in for word frequency
+            double u = random.nextDouble();
+            text.append(vocabulary[(int) (u * u * VOCABULARY_SIZE)]);
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        StringBuilder word = new StringBuilder();
+        int value = rank + 26;
+        while (value > 0) {
+            word.append((char) ('a' + value % 26));
+            value /= 26;
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.model.Order;
+import com.example.webshop.persistence.PersistenceManager;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to rebuild both repositories from the write-ahead log on startup. Each order is logged
+ * together with one stock change, so {@code orders} orders produce twice as many records.
+ * For the 10M record measurement run with {@code -p orders=5000000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RecoveryBenchmark {
+
+    @Param({"500000"})
+    public int orders;
+
+    private final ObjectMapper objectMapper = Fixtures.objectMapper();
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void writeLog() throws IOException {
+        directory = Files.createTempDirectory("recovery-bench");
+        ProductRepository productRepository = Fixtures.productRepository(Fixtures.NO_EVENTS);
+        OrderRepository orderRepository = new OrderRepository(Fixtures.NO_EVENTS, new HeapOrderStore());
+        PersistenceManager persistence = open(productRepository, orderRepository);
+
+        for (long id = 1; id <= orders; id++) {
+            Order order = Fixtures.order(id, 3);
+            persistence.onOrderStoring(new OrderStoringEvent(order));
+            persistence.onStockChanged(new StockChangedEvent(productRepository.getStockLevel(id % Fixtures.PRODUCT_COUNT + 1)));
+        }
+        persistence.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLog() throws IOException {
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long recover() throws IOException {
+        ProductRepository productRepository = new ProductRepository(Fixtures.NO_EVENTS);
+        OrderRepository orderRepository = new OrderRepository(Fixtures.NO_EVENTS, new HeapOrderStore());
+        PersistenceManager persistence = open(productRepository, orderRepository);
+        persistence.close();
+        return orderRepository.count();
+    }
+
+    private PersistenceManager open(ProductRepository productRepository, OrderRepository orderRepository)
+            throws IOException {
+        // Long fsync and snapshot intervals so only the log itself is measured
+        return new PersistenceManager(productRepository, orderRepository,
+                Fixtures.reservationService(new ProductService(productRepository)), objectMapper,
+                directory.toString(), 1000, 24 * 3600);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.exception.GlobalExceptionHandler;
+import com.example.webshop.exception.OrderNotFoundException;
+import com.example.webshop.metrics.CheckoutMetrics;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the response models, configured like Spring Boot's ObjectMapper.
+ *
+ * <p>The {@code reflective} benchmarks serialize the same models with Jackson's bean serializer
+ * instead of the hand-written ones, and {@code errorMap} builds an error body the way the
+ * exception handler used to, so running with {@code -prof gc} compares allocation per response
+ * before and after. Streaming benchmarks write to a discarding stream, as to a response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @JsonSerialize
+    private abstract static class BeanSerialized {
+    }
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+    private ObjectWriter orderWriter;
+    private ObjectWriter reflectiveOrderWriter;
+    private ObjectWriter productWriter;
+    private ObjectWriter productListWriter;
+    private ObjectWriter reflectiveProductListWriter;
+    private ObjectWriter mapWriter;
+    private GlobalExceptionHandler exceptionHandler;
+    private CheckoutMetrics checkoutMetrics;
+    private OrderNotFoundException orderNotFound;
+    private Order order;
+    private Product product;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        ObjectMapper reflectiveMapper = objectMapper.copy()
+                .addMixIn(Order.class, BeanSerialized.class)
+                .addMixIn(Product.class, BeanSerialized.class);
+        orderWriter = objectMapper.writerFor(Order.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        reflectiveOrderWriter = reflectiveMapper.writerFor(Order.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        productWriter = objectMapper.writerFor(Product.class);
+        productListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Product.class));
+        reflectiveProductListWriter = reflectiveMapper.writerFor(reflectiveMapper.getTypeFactory()
+                .constructCollectionType(List.class, Product.class));
+        mapWriter = objectMapper.writerFor(Map.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        checkoutMetrics = new CheckoutMetrics(new SimpleMeterRegistry());
+        exceptionHandler = new GlobalExceptionHandler(checkoutMetrics);
+        orderNotFound = new OrderNotFoundException(12345L);
+        order = Fixtures.order(1L, 3);
+        products = Fixtures.productRepository(Fixtures.NO_EVENTS).findAll();
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return orderWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeCatalog() throws JsonProcessingException {
+        return productListWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeCatalogReflective() throws JsonProcessingException {
+        return reflectiveProductListWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public void streamOrder() throws IOException {
+        orderWriter.writeValue(sink, order);
+    }
+
+    @Benchmark
+    public void streamOrderReflective() throws IOException {
+        reflectiveOrderWriter.writeValue(sink, order);
+    }
+
+    @Benchmark
+    public void errorTemplate() throws IOException {
+        sink.write(exceptionHandler.handleOrderNotFoundException(orderNotFound).getBody());
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> errorMap() throws IOException {
+        checkoutMetrics.recordRejection(orderNotFound);
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", orderNotFound.getMessage());
+        body.put("status", HttpStatus.NOT_FOUND.value());
+        ResponseEntity<Map<String, Object>> response = new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+        mapWriter.writeValue(sink, response.getBody());
+        return response;
+    }
+}
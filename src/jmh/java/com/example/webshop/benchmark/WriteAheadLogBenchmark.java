@@ -0,0 +1,56 @@
+package com.example.webshop.benchmark;
+
+import com.example.webshop.persistence.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw log append cost, with and without forcing every record to disk. The gap between the two
+ * is what batched fsync and group commit save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WriteAheadLogBenchmark {
+
+    @Param({"256"})
+    public int payloadBytes;
+
+    private Path directory;
+    private WriteAheadLog wal;
+    private byte[] payload;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-bench");
+        wal = new WriteAheadLog(directory, 256L * 1024 * 1024);
+        payload = new byte[payloadBytes];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        wal.close();
+        Benchmarks.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void append() throws IOException {
+        wal.append((byte) 1, payload);
+    }
+
+    @Benchmark
+    public void appendAndSync() throws IOException {
+        wal.append((byte) 1, payload);
+        wal.sync();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void appendContended() throws IOException {
+        wal.append((byte) 1, payload);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.webshop.controller;
+
+import com.example.webshop.exception.InvalidRequestException;
+import com.example.webshop.model.MinuteSales;
+import com.example.webshop.model.ProductSales;
+import com.example.webshop.model.SalesSummary;
+import com.example.webshop.service.SalesAnalytics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Sales figures from the running aggregates in {@link SalesAnalytics}. Periods are given in
+ * minutes up to the configured window; without {@code minutes}, figures cover all orders since
+ * startup.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    private final SalesAnalytics salesAnalytics;
+
+    public AnalyticsController(SalesAnalytics salesAnalytics) {
+        this.salesAnalytics = salesAnalytics;
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<SalesSummary> getSummary(@RequestParam(required = false) Integer minutes) {
+        return ResponseEntity.ok(salesAnalytics.getSummary(minutes));
+    }
+
+    @GetMapping("/orders-per-minute")
+    public ResponseEntity<List<MinuteSales>> getSalesPerMinute(@RequestParam(defaultValue = "60") int minutes) {
+        return ResponseEntity.ok(salesAnalytics.getSalesPerMinute(minutes));
+    }
+
+    /**
+     * Best-selling products, ranked by {@code sort}: {@code revenue} or {@code units}.
+     */
+    @GetMapping("/top-products")
+    public ResponseEntity<List<ProductSales>> getTopProducts(
+            @RequestParam(required = false) Integer minutes,
+            @RequestParam(defaultValue = "" + SalesAnalytics.DEFAULT_TOP_PRODUCTS) int limit,
+            @RequestParam(defaultValue = "revenue") String sort) {
+        boolean byUnits;
+        if ("revenue".equals(sort)) {
+            byUnits = false;
+        } else if ("units".equals(sort)) {
+            byUnits = true;
+        } else {
+            throw new InvalidRequestException("Unknown sort order: " + sort + " (expected revenue or units)");
+        }
+        return ResponseEntity.ok(salesAnalytics.getTopProducts(minutes, limit, byUnits));
+    }
+}
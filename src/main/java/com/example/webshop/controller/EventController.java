@@ -0,0 +1,62 @@
+package com.example.webshop.controller;
+
+import com.example.webshop.event.EventLog;
+import com.example.webshop.event.EventStreams;
+import com.example.webshop.model.ChangeEventPage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change feed of created orders and stock changes, by offset in the {@link EventLog}.
+ */
+@RestController
+@RequestMapping("/api/events")
+public class EventController {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final long MAX_WAIT_MS = 30_000;
+
+    private final EventLog eventLog;
+    private final EventStreams eventStreams;
+
+    public EventController(EventLog eventLog, EventStreams eventStreams) {
+        this.eventLog = eventLog;
+        this.eventStreams = eventStreams;
+    }
+
+    /**
+     * Long-poll: returns the events from offset {@code from} on, or waits up to {@code waitMs}
+     * for the next one. Pass {@code nextOffset} of the response as {@code from} to continue.
+     */
+    @GetMapping
+    public ResponseEntity<ChangeEventPage> getEvents(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "0") long waitMs) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(waitMs, MAX_WAIT_MS)));
+        try {
+            return ResponseEntity.ok(eventLog.read(from, pageSize, waitNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.ok(new ChangeEventPage(List.of(), from, false));
+        }
+    }
+
+    /**
+     * Server-Sent Events stream. Starts after {@code Last-Event-ID} when reconnecting, otherwise
+     * at {@code from}, and otherwise with the next new event.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestParam(required = false) Long from,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long start = lastEventId != null ? lastEventId + 1 : from != null ? from : eventLog.getEndOffset();
+        return eventStreams.subscribe(start);
+    }
+}
@@ -1,24 +1,195 @@
 package com.example.webshop.controller;
 
+import com.example.webshop.exception.InvalidOrderException;
+import com.example.webshop.model.BulkOrderResult;
 import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderPage;
 import com.example.webshop.model.OrderRequest;
+import com.example.webshop.service.BulkOrderService;
+import com.example.webshop.service.IdempotencyCache;
+import com.example.webshop.service.OrderAdmission;
+import com.example.webshop.service.OrderIngestionPipeline;
 import com.example.webshop.service.OrderService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final OrderService orderService;
+    private final OrderIngestionPipeline ingestionPipeline;
+    private final IdempotencyCache idempotencyCache;
+    private final BulkOrderService bulkOrderService;
+    private final OrderAdmission orderAdmission;
+    private final ObjectReader orderRequestReader;
+    private final ObjectWriter orderRequestWriter;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter bulkResultWriter;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService,
+                           ObjectProvider<OrderIngestionPipeline> ingestionPipeline,
+                           IdempotencyCache idempotencyCache,
+                           BulkOrderService bulkOrderService,
+                           OrderAdmission orderAdmission,
+                           ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.ingestionPipeline = ingestionPipeline.getIfAvailable();
+        this.idempotencyCache = idempotencyCache;
+        this.bulkOrderService = bulkOrderService;
+        this.orderAdmission = orderAdmission;
+        this.orderRequestReader = objectMapper.readerFor(OrderRequest.class);
+        this.orderRequestWriter = objectMapper.writerFor(OrderRequest.class);
+        this.ndjsonWriter = objectMapper.writerFor(Order.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.bulkResultWriter = objectMapper.writerFor(BulkOrderResult.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    /**
+     * Creates an order. Requests repeating an {@code Idempotency-Key} get the order created by the
+     * first request with that key, marked with an {@code Idempotent-Replayed} header.
+     */
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody OrderRequest orderRequest) {
-        Order order = orderService.createOrder(orderRequest);
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    public CompletableFuture<ResponseEntity<Order>> createOrder(
+            @RequestBody OrderRequest orderRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return placeOrder(orderRequest)
+                    .thenApply(order -> ResponseEntity.status(HttpStatus.CREATED).body(order));
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new InvalidOrderException(IDEMPOTENCY_KEY_HEADER + " must be 1 to "
+                    + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        IdempotencyCache.Result result = idempotencyCache.execute(idempotencyKey, requestHash(orderRequest),
+                () -> placeOrder(orderRequest));
+        return result.getOrder().thenApply(order -> ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, Boolean.toString(result.isReplayed()))
+                .body(order));
+    }
+
+    /**
+     * Hashes the request as it is written back to JSON, so retries differing only in formatting
+     * or field order still match.
+     */
+    private byte[] requestHash(OrderRequest orderRequest) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(orderRequestWriter.writeValueAsBytes(orderRequest));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Places an order once admission control lets it through, holding the admission until the
+     * order has been placed or has failed. The request is validated here, once, so an invalid
+     * request is reported as such rather than by admission.
+     */
+    private CompletableFuture<Order> placeOrder(OrderRequest orderRequest) {
+        orderService.validateOrderRequest(orderRequest);
+        OrderAdmission.Permit permit = orderAdmission.admit(orderRequest.getItems());
+        CompletableFuture<Order> order;
+        try {
+            order = ingestionPipeline == null
+                    ? CompletableFuture.completedFuture(orderService.placeOrder(orderRequest))
+                    : ingestionPipeline.submit(orderRequest);
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        return order.whenComplete((placed, failure) -> permit.close());
+    }
+
+    /**
+     * Places many orders from one request body, either a JSON array or newline-delimited JSON.
+     * One result line per order is streamed back as each chunk of orders is placed.
+     */
+    @PostMapping(path = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importOrders(InputStream requestBody) {
+        StreamingResponseBody body = out -> {
+            try (MappingIterator<OrderRequest> requests = orderRequestReader.readValues(requestBody)) {
+                bulkOrderService.importOrders(requests, result -> {
+                    try {
+                        bulkResultWriter.writeValue(out, result);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping
+    public ResponseEntity<OrderPage> getOrders(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(orderService.getOrders(cursor, limit));
+    }
+
+    /**
+     * One customer's order history, newest first. Pass {@code nextCursor} as {@code cursor} for
+     * the next page.
+     */
+    @GetMapping(params = "email")
+    public ResponseEntity<OrderPage> getCustomerOrders(
+            @RequestParam String email,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + OrderService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(email, cursor, limit));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders(@RequestParam(required = false) Long cursor) {
+        StreamingResponseBody body = out -> {
+            try {
+                orderService.forEachOrder(cursor, order -> {
+                    try {
+                        ndjsonWriter.writeValue(out, order);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getOrderById(id));
     }
 }
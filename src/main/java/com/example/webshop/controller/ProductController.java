@@ -1,30 +1,81 @@
 package com.example.webshop.controller;
 
-import com.example.webshop.model.Product;
-import com.example.webshop.service.ProductService;
+import com.example.webshop.exception.InvalidRequestException;
+import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.model.ProductSearchPage;
+import com.example.webshop.service.CatalogSnapshot;
+import com.example.webshop.service.ProductCatalog;
+import com.example.webshop.service.ProductSearch;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
-    private final ProductService productService;
+    public static final int MAX_IDS = 100;
 
-    public ProductController(ProductService productService) {
-        this.productService = productService;
+    private final ProductCatalog productCatalog;
+    private final ProductSearch productSearch;
+
+    public ProductController(ProductCatalog productCatalog, ProductSearch productSearch) {
+        this.productCatalog = productCatalog;
+        this.productSearch = productSearch;
     }
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts(WebRequest request) {
+        CatalogSnapshot catalog = productCatalog.current();
+        if (request.checkNotModified(catalog.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(catalog.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.getJson());
+    }
+
+    /**
+     * Returns the products with the given comma-separated ids as one JSON array, in the order
+     * requested. Unknown ids are left out rather than failing the whole request. At most
+     * {@link #MAX_IDS} ids may be asked for at once.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<byte[]> getProductsById(@RequestParam long[] ids) {
+        if (ids.length > MAX_IDS) {
+            throw new InvalidRequestException("At most " + MAX_IDS + " ids may be requested at once");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(productCatalog.current().getJson(ids));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchPage> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + ProductSearch.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(productSearch.search(q, minPrice, maxPrice, inStock, cursor, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id, WebRequest request) {
+        CatalogSnapshot.Entry product = productCatalog.current().getEntry(id);
+        if (product == null) {
+            throw new ProductNotFoundException(id);
+        }
+        if (request.checkNotModified(product.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(product.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(product.getJson());
     }
 }
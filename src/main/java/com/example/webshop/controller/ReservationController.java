@@ -0,0 +1,48 @@
+package com.example.webshop.controller;
+
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.ReservationRequest;
+import com.example.webshop.service.OrderAdmission;
+import com.example.webshop.service.ReservationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reservations")
+public class ReservationController {
+    private final ReservationService reservationService;
+    private final OrderAdmission orderAdmission;
+
+    public ReservationController(ReservationService reservationService, OrderAdmission orderAdmission) {
+        this.reservationService = reservationService;
+        this.orderAdmission = orderAdmission;
+    }
+
+    /**
+     * Holds stock for a cart, subject to the same admission control as orders. Pass the returned
+     * id as {@code reservationId} when creating the order, before {@code expiresAt}. The request
+     * is validated before admission.
+     */
+    @PostMapping
+    public ResponseEntity<Reservation> createReservation(@RequestBody ReservationRequest reservationRequest) {
+        reservationService.validateReservationRequest(reservationRequest);
+        OrderAdmission.Permit permit = orderAdmission.admit(reservationRequest.getItems());
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(reservationService.create(reservationRequest));
+        } finally {
+            permit.close();
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Reservation> getReservation(@PathVariable String id) {
+        return ResponseEntity.ok(reservationService.get(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable String id) {
+        reservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+}
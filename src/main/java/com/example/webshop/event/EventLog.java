@@ -0,0 +1,135 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.ChangeEvent;
+import com.example.webshop.model.ChangeEventPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process change feed of created orders and stock changes, for consumers outside the
+ * service to tail by offset.
+ *
+ * <p>The log is a ring of the most recent {@code capacity} events. Writers claim an offset with
+ * one atomic increment and never wait for readers, so checkout is never slowed by a consumer.
+ * Each consumer pulls from its own offset at its own pace; one that falls more than
+ * {@code capacity} events behind skips ahead to the oldest retained event and is told its
+ * page was truncated. Readers waiting for new events are woken by writers only while someone
+ * is actually waiting.
+ */
+@Component
+public class EventLog {
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong nextOffset = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+
+    public EventLog(@Value("${webshop.events.capacity:16384}") int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Event log capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        append(ChangeEvent.ORDER_CREATED, event.getOrder());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        append(ChangeEvent.STOCK_CHANGED, event.getStockLevel());
+    }
+
+    long append(String type, Object data) {
+        long offset = nextOffset.getAndIncrement();
+        slots.set((int) offset & mask, new ChangeEvent(offset, type, LocalDateTime.now(), data));
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * The offset the next event will get.
+     */
+    public long getEndOffset() {
+        return nextOffset.get();
+    }
+
+    /**
+     * Returns up to {@code limit} events from offset {@code from} on, waiting up to
+     * {@code timeoutNanos} for the first one if none is there yet. An offset past the end reads
+     * from the end.
+     */
+    public ChangeEventPage read(long from, int limit, long timeoutNanos) throws InterruptedException {
+        ChangeEventPage page = read(from, limit);
+        if (!page.getEvents().isEmpty() || timeoutNanos <= 0) {
+            return page;
+        }
+        long next = page.getNextOffset();
+        long remaining = timeoutNanos;
+        waiting.incrementAndGet();
+        lock.lock();
+        try {
+            while (!isPublished(next) && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+            waiting.decrementAndGet();
+        }
+        ChangeEventPage later = read(next, limit);
+        return new ChangeEventPage(later.getEvents(), later.getNextOffset(),
+                page.isTruncated() || later.isTruncated());
+    }
+
+    private ChangeEventPage read(long from, int limit) {
+        long end = nextOffset.get();
+        long next = Math.max(0, Math.min(from, end));
+        boolean truncated = false;
+        List<ChangeEvent> events = new ArrayList<>(Math.min(limit, 64));
+        while (events.size() < limit) {
+            ChangeEvent event = slots.get((int) next & mask);
+            if (event == null || event.getOffset() < next) {
+                // Not published yet
+                break;
+            }
+            if (event.getOffset() > next) {
+                if (!events.isEmpty()) {
+                    // Return what is contiguous; the next read reports the gap
+                    break;
+                }
+                // Overwritten: skip ahead to the oldest event still held
+                truncated = true;
+                next = Math.max(next + 1, nextOffset.get() - slots.length());
+                continue;
+            }
+            events.add(event);
+            next++;
+        }
+        return new ChangeEventPage(events, next, truncated);
+    }
+
+    private boolean isPublished(long offset) {
+        ChangeEvent event = slots.get((int) offset & mask);
+        return event != null && event.getOffset() >= offset;
+    }
+}
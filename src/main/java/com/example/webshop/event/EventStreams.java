@@ -0,0 +1,123 @@
+package com.example.webshop.event;
+
+import com.example.webshop.exception.SubscriberLimitExceededException;
+import com.example.webshop.model.ChangeEvent;
+import com.example.webshop.model.ChangeEventPage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-Sent Events subscriptions to the {@link EventLog}. Each subscriber gets a thread that
+ * reads from its own offset and sends every event with its offset as the event id, so a client
+ * reconnecting with {@code Last-Event-ID} resumes where it stopped. A slow client only holds up
+ * its own thread, and the number of subscribers is capped.
+ */
+@Component
+public class EventStreams {
+    private static final int BATCH_SIZE = 256;
+    private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final EventLog eventLog;
+    private final Semaphore subscriptions;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "webshop-event-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EventStreams(EventLog eventLog,
+                        @Value("${webshop.events.max-subscribers:100}") int maxSubscribers,
+                        @Value("${webshop.events.stream-timeout-ms:1800000}") long timeoutMs) {
+        this.eventLog = eventLog;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriptions = new Semaphore(maxSubscribers);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Streams events from offset {@code from} on until the client disconnects or the stream
+     * times out. Before resuming past events that were already dropped from the log, a
+     * {@code truncated} event carries the offset the stream continues from.
+     *
+     * @throws SubscriberLimitExceededException if all subscriptions are in use
+     */
+    public SseEmitter subscribe(long from) {
+        if (!subscriptions.tryAcquire()) {
+            throw new SubscriberLimitExceededException(maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, from);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(failure -> subscription.close());
+        try {
+            senders.execute(subscription);
+        } catch (RuntimeException e) {
+            subscriptions.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private final class Subscription implements Runnable {
+        private final SseEmitter emitter;
+        private volatile boolean closed;
+        private long next;
+
+        Subscription(SseEmitter emitter, long from) {
+            this.emitter = emitter;
+            this.next = from;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    ChangeEventPage page = eventLog.read(next, BATCH_SIZE, HEARTBEAT_NANOS);
+                    if (page.isTruncated()) {
+                        long resumeAt = page.getEvents().isEmpty()
+                                ? page.getNextOffset() : page.getEvents().get(0).getOffset();
+                        emitter.send(SseEmitter.event().name("truncated").data(resumeAt));
+                    }
+                    if (page.getEvents().isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    for (ChangeEvent event : page.getEvents()) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getOffset()))
+                                .name(event.getType())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                    next = page.getNextOffset();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter completed
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                subscriptions.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.Order;
+
+/**
+ * Published by the order repository after a new order has been stored.
+ */
+public class OrderCreatedEvent {
+    private final Order order;
+
+    public OrderCreatedEvent(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+}
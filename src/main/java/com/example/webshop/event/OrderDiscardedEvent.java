@@ -0,0 +1,17 @@
+package com.example.webshop.event;
+
+/**
+ * Published by the order repository when a new order announced by {@link OrderStoringEvent}
+ * could not be stored after all, so the write-ahead log can cancel its record.
+ */
+public class OrderDiscardedEvent {
+    private final long orderId;
+
+    public OrderDiscardedEvent(long orderId) {
+        this.orderId = orderId;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+}
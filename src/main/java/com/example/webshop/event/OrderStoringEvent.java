@@ -0,0 +1,20 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.Order;
+
+/**
+ * Published by the order repository when a new order has its id, just before it is stored, for
+ * the write-ahead log. A listener that throws fails the save, and the order is not stored.
+ * Listeners that announce orders should use {@link OrderCreatedEvent} instead.
+ */
+public class OrderStoringEvent {
+    private final Order order;
+
+    public OrderStoringEvent(Order order) {
+        this.order = order;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+}
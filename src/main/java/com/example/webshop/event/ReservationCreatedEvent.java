@@ -0,0 +1,18 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.Reservation;
+
+/**
+ * Published by the reservation service after stock has been taken for a new hold.
+ */
+public class ReservationCreatedEvent {
+    private final Reservation reservation;
+
+    public ReservationCreatedEvent(Reservation reservation) {
+        this.reservation = reservation;
+    }
+
+    public Reservation getReservation() {
+        return reservation;
+    }
+}
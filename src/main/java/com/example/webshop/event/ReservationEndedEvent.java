@@ -0,0 +1,17 @@
+package com.example.webshop.event;
+
+/**
+ * Published by the reservation service when a hold is claimed, released or expires, before its
+ * stock is given back or taken over by an order.
+ */
+public class ReservationEndedEvent {
+    private final String reservationId;
+
+    public ReservationEndedEvent(String reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.StockLevel;
+
+/**
+ * Published by the product repository after the stock of a product has changed.
+ */
+public class StockChangedEvent {
+    private final StockLevel stockLevel;
+
+    public StockChangedEvent(StockLevel stockLevel) {
+        this.stockLevel = stockLevel;
+    }
+
+    public StockLevel getStockLevel() {
+        return stockLevel;
+    }
+}
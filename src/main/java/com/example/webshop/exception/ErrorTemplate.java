@@ -0,0 +1,90 @@
+package com.example.webshop.exception;
+
+import com.example.webshop.json.JsonDates;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-encoded JSON error body for one status, {@code {"message":...,"timestamp":...,"status":...}}.
+ * Everything but the message and timestamp is encoded once, so rendering an error is a single
+ * byte array filled in place.
+ */
+final class ErrorTemplate {
+    private static final byte[] MESSAGE = "{\"message\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TIMESTAMP = ",\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpStatus status;
+    private final byte[] statusSuffix;
+    private final byte[] fixedMessage;
+
+    ErrorTemplate(HttpStatus status) {
+        this(status, null);
+    }
+
+    /**
+     * A template that always reports {@code message}, whatever the exception says.
+     */
+    ErrorTemplate(HttpStatus status, String message) {
+        this.status = status;
+        this.statusSuffix = ("\",\"status\":" + status.value() + "}").getBytes(StandardCharsets.UTF_8);
+        this.fixedMessage = message == null ? null : quote(message);
+    }
+
+    ResponseEntity.BodyBuilder status() {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON);
+    }
+
+    ResponseEntity<byte[]> render(Exception ex) {
+        return status().body(body(ex));
+    }
+
+    byte[] body(Exception ex) {
+        byte[] message = fixedMessage != null ? fixedMessage
+                : ex.getMessage() == null ? NULL : quote(ex.getMessage());
+        char[] timestamp = new char[JsonDates.MAX_LENGTH];
+        int timestampLength = JsonDates.getChars(LocalDateTime.now(), timestamp, 0);
+
+        byte[] body = new byte[MESSAGE.length + message.length + TIMESTAMP.length + timestampLength
+                + statusSuffix.length];
+        int position = append(body, 0, MESSAGE);
+        position = append(body, position, message);
+        position = append(body, position, TIMESTAMP);
+        for (int i = 0; i < timestampLength; i++) {
+            body[position++] = (byte) timestamp[i];
+        }
+        append(body, position, statusSuffix);
+        return body;
+    }
+
+    private static int append(byte[] body, int position, byte[] part) {
+        System.arraycopy(part, 0, body, position, part.length);
+        return position + part.length;
+    }
+
+    private static byte[] quote(String text) {
+        byte[] escaped = needsEscaping(text)
+                ? JsonStringEncoder.getInstance().quoteAsUTF8(text)
+                : text.getBytes(StandardCharsets.UTF_8);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static boolean needsEscaping(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,59 +1,108 @@
 package com.example.webshop.exception;
 
+import com.example.webshop.metrics.CheckoutMetrics;
+import com.example.webshop.model.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Turns exceptions into JSON error bodies with {@code message}, {@code timestamp} and
+ * {@code status}, rendered from pre-encoded templates. An order that was placed but could not be
+ * synced to the log is answered with {@code 202 Accepted} and the order itself, so the client
+ * knows it exists and does not place it again.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private static final ErrorTemplate BAD_REQUEST = new ErrorTemplate(HttpStatus.BAD_REQUEST);
+    private static final ErrorTemplate NOT_FOUND = new ErrorTemplate(HttpStatus.NOT_FOUND);
+    private static final ErrorTemplate UNPROCESSABLE_ENTITY = new ErrorTemplate(HttpStatus.UNPROCESSABLE_ENTITY);
+    private static final ErrorTemplate TOO_MANY_REQUESTS = new ErrorTemplate(HttpStatus.TOO_MANY_REQUESTS);
+    private static final ErrorTemplate SERVICE_UNAVAILABLE = new ErrorTemplate(HttpStatus.SERVICE_UNAVAILABLE);
+    private static final ErrorTemplate INTERNAL_SERVER_ERROR = new ErrorTemplate(HttpStatus.INTERNAL_SERVER_ERROR,
+            "An unexpected error occurred");
+
+    private final CheckoutMetrics checkoutMetrics;
+
+    public GlobalExceptionHandler(CheckoutMetrics checkoutMetrics) {
+        this.checkoutMetrics = checkoutMetrics;
+    }
 
     @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleProductNotFoundException(ProductNotFoundException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleProductNotFoundException(ProductNotFoundException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return NOT_FOUND.render(ex);
     }
 
     @ExceptionHandler(InsufficientStockException.class)
-    public ResponseEntity<Map<String, Object>> handleInsufficientStockException(InsufficientStockException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleInsufficientStockException(InsufficientStockException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return BAD_REQUEST.render(ex);
     }
 
     @ExceptionHandler(InvalidOrderException.class)
-    public ResponseEntity<Map<String, Object>> handleInvalidOrderException(InvalidOrderException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<byte[]> handleInvalidOrderException(InvalidOrderException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return BAD_REQUEST.render(ex);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<byte[]> handleInvalidRequestException(InvalidRequestException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return BAD_REQUEST.render(ex);
+    }
+
+    @ExceptionHandler(OrderNotDurableException.class)
+    public ResponseEntity<Order> handleOrderNotDurableException(OrderNotDurableException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ex.getOrder());
     }
 
     @ExceptionHandler(OrderNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleOrderNotFoundException(OrderNotFoundException ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-        body.put("status", HttpStatus.NOT_FOUND.value());
-        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    public ResponseEntity<byte[]> handleOrderNotFoundException(OrderNotFoundException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return NOT_FOUND.render(ex);
+    }
+
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ResponseEntity<byte[]> handleReservationNotFoundException(ReservationNotFoundException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return NOT_FOUND.render(ex);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<byte[]> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return UNPROCESSABLE_ENTITY.render(ex);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<byte[]> handleRateLimitExceededException(RateLimitExceededException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return TOO_MANY_REQUESTS.status()
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(TOO_MANY_REQUESTS.body(ex));
+    }
+
+    @ExceptionHandler(ProductOverloadedException.class)
+    public ResponseEntity<byte[]> handleProductOverloadedException(ProductOverloadedException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return SERVICE_UNAVAILABLE.status()
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(SERVICE_UNAVAILABLE.body(ex));
+    }
+
+    @ExceptionHandler(SubscriberLimitExceededException.class)
+    public ResponseEntity<byte[]> handleSubscriberLimitExceededException(SubscriberLimitExceededException ex) {
+        checkoutMetrics.recordRejection(ex);
+        return SERVICE_UNAVAILABLE.render(ex);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", "An unexpected error occurred");
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<byte[]> handleGenericException(Exception ex) {
+        checkoutMetrics.recordRejection(ex);
+        return INTERNAL_SERVER_ERROR.render(ex);
     }
 }
@@ -0,0 +1,7 @@
+package com.example.webshop.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key was already used for a different request: " + key);
+    }
+}
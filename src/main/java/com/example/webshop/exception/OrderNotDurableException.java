@@ -0,0 +1,16 @@
+package com.example.webshop.exception;
+
+import com.example.webshop.model.Order;
+
+public class OrderNotDurableException extends RuntimeException {
+    private final Order order;
+
+    public OrderNotDurableException(Order order, Throwable cause) {
+        super("Order " + order.getId() + " was placed but could not be made durable", cause);
+        this.order = order;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+}
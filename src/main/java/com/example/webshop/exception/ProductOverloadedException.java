@@ -0,0 +1,7 @@
+package com.example.webshop.exception;
+
+public class ProductOverloadedException extends RuntimeException {
+    public ProductOverloadedException(Long productId) {
+        super("Too many concurrent orders for product id: " + productId + ". Please retry");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.webshop.exception;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(Long productId, long retryAfterSeconds) {
+        super("Too many orders for product id: " + productId + ". Retry after " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.webshop.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String id) {
+        super("Reservation not found or expired with id: " + id);
+    }
+}
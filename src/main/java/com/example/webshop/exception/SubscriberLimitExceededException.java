@@ -0,0 +1,7 @@
+package com.example.webshop.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    public SubscriberLimitExceededException(int maxSubscribers) {
+        super("All " + maxSubscribers + " event stream subscriptions are in use. Please retry later");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.webshop.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes {@link LocalDateTime} values the way Jackson's default serializer does, as ISO-8601 text
+ * such as {@code 2024-05-01T13:45:07.1234}, but formatted straight into a caller's buffer instead
+ * of through {@link DateTimeFormatter} and an intermediate string.
+ */
+public final class JsonDates {
+    /**
+     * Longest text written by {@link #getChars}, {@code "9999-12-31T23:59:59.999999999"}.
+     */
+    public static final int MAX_LENGTH = 29;
+
+    private JsonDates() {
+    }
+
+    /**
+     * Writes {@code value} as a JSON string, or as Jackson's timestamp array when the provider
+     * is configured with {@link SerializationFeature#WRITE_DATES_AS_TIMESTAMPS}.
+     *
+     * @param buffer scratch space of at least {@link #MAX_LENGTH} characters
+     */
+    public static void write(LocalDateTime value, JsonGenerator gen, SerializerProvider provider, char[] buffer)
+            throws IOException {
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, gen);
+            return;
+        }
+        int length = getChars(value, buffer, 0);
+        if (length < 0) {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+        } else {
+            gen.writeString(buffer, 0, length);
+        }
+    }
+
+    /**
+     * Formats {@code value} as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} would: seconds
+     * always shown, and the fraction only when non-zero, without trailing zeros.
+     *
+     * @return the number of characters written, or -1 if the year is outside 0 to 9999, which
+     *         the ISO format writes with a sign
+     */
+    public static int getChars(LocalDateTime value, char[] buffer, int offset) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        int position = offset;
+        position = digits(year, 4, buffer, position);
+        buffer[position++] = '-';
+        position = digits(value.getMonthValue(), 2, buffer, position);
+        buffer[position++] = '-';
+        position = digits(value.getDayOfMonth(), 2, buffer, position);
+        buffer[position++] = 'T';
+        position = digits(value.getHour(), 2, buffer, position);
+        buffer[position++] = ':';
+        position = digits(value.getMinute(), 2, buffer, position);
+        buffer[position++] = ':';
+        position = digits(value.getSecond(), 2, buffer, position);
+        int nano = value.getNano();
+        if (nano != 0) {
+            int fractionDigits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                fractionDigits--;
+            }
+            buffer[position++] = '.';
+            position = digits(nano, fractionDigits, buffer, position);
+        }
+        return position - offset;
+    }
+
+    private static int digits(int value, int width, char[] buffer, int position) {
+        for (int i = position + width - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + width;
+    }
+}
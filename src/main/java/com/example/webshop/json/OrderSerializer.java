@@ -0,0 +1,106 @@
+package com.example.webshop.json;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes an {@link Order} with its customer and items in one pass, producing the same JSON as
+ * Jackson's bean serializer. Field names are encoded once up front, and amounts and the order
+ * date are formatted into one scratch buffer per order, so nothing is looked up by reflection
+ * and no intermediate strings are built.
+ */
+public class OrderSerializer extends StdSerializer<Order> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString CUSTOMER_INFO = new SerializedString("customerInfo");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString ITEMS = new SerializedString("items");
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString PRICE_AT_PURCHASE = new SerializedString("priceAtPurchase");
+    private static final SerializedString TOTAL_AMOUNT = new SerializedString("totalAmount");
+    private static final SerializedString ORDER_DATE = new SerializedString("orderDate");
+
+    public OrderSerializer() {
+        super(Order.class);
+    }
+
+    @Override
+    public void serialize(Order order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[Math.max(Money.MAX_LENGTH, JsonDates.MAX_LENGTH)];
+        gen.writeStartObject(order);
+        gen.writeFieldName(ID);
+        writeLong(order.getId(), gen);
+
+        gen.writeFieldName(CUSTOMER_INFO);
+        CustomerInfo customerInfo = order.getCustomerInfo();
+        if (customerInfo == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject(customerInfo);
+            gen.writeFieldName(NAME);
+            gen.writeString(customerInfo.getName());
+            gen.writeFieldName(ADDRESS);
+            gen.writeString(customerInfo.getAddress());
+            gen.writeFieldName(EMAIL);
+            gen.writeString(customerInfo.getEmail());
+            gen.writeEndObject();
+        }
+
+        gen.writeFieldName(ITEMS);
+        List<OrderItem> items = order.getItems();
+        if (items == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(items, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                OrderItem item = items.get(i);
+                gen.writeStartObject(item);
+                gen.writeFieldName(PRODUCT_ID);
+                writeLong(item.getProductId(), gen);
+                gen.writeFieldName(QUANTITY);
+                gen.writeNumber(item.getQuantity());
+                gen.writeFieldName(PRICE_AT_PURCHASE);
+                writeMoney(item.getPriceAtPurchase(), gen, buffer);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+
+        gen.writeFieldName(TOTAL_AMOUNT);
+        writeMoney(order.getTotalAmount(), gen, buffer);
+        gen.writeFieldName(ORDER_DATE);
+        if (order.getOrderDate() == null) {
+            gen.writeNull();
+        } else {
+            JsonDates.write(order.getOrderDate(), gen, provider, buffer);
+        }
+        gen.writeEndObject();
+    }
+
+    static void writeLong(Long value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void writeMoney(Money value, JsonGenerator gen, char[] buffer) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(buffer, 0, value.getChars(buffer, 0));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.webshop.json;
+
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Product} with pre-encoded field names, producing the same JSON as Jackson's
+ * bean serializer.
+ */
+public class ProductSerializer extends StdSerializer<Product> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString IMAGE_URL = new SerializedString("imageUrl");
+    private static final SerializedString STOCK = new SerializedString("stock");
+
+    public ProductSerializer() {
+        super(Product.class);
+    }
+
+    @Override
+    public void serialize(Product product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(product);
+        gen.writeFieldName(ID);
+        OrderSerializer.writeLong(product.getId(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(product.getName());
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(product.getDescription());
+        gen.writeFieldName(PRICE);
+        OrderSerializer.writeMoney(product.getPrice(), gen, new char[Money.MAX_LENGTH]);
+        gen.writeFieldName(IMAGE_URL);
+        gen.writeString(product.getImageUrl());
+        gen.writeFieldName(STOCK);
+        gen.writeNumber(product.getStock());
+        gen.writeEndObject();
+    }
+}
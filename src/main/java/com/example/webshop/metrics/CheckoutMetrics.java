@@ -0,0 +1,73 @@
+package com.example.webshop.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout and rejection metrics. Timers for every item-count bucket and outcome are registered
+ * up front, so recording a checkout is an array lookup plus a histogram update, with no meter
+ * lookup or tag allocation on the hot path.
+ */
+@Component
+public class CheckoutMetrics {
+    private static final String[] ITEM_BUCKETS = {"1", "2-5", "6-20", "21+"};
+
+    private final MeterRegistry registry;
+    private final Timer[] succeeded = new Timer[ITEM_BUCKETS.length];
+    private final Timer[] failed = new Timer[ITEM_BUCKETS.length];
+    private final ConcurrentHashMap<Class<?>, Counter> rejections = new ConcurrentHashMap<>();
+
+    public CheckoutMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (int i = 0; i < ITEM_BUCKETS.length; i++) {
+            succeeded[i] = checkoutTimer(ITEM_BUCKETS[i], "success");
+            failed[i] = checkoutTimer(ITEM_BUCKETS[i], "failure");
+        }
+    }
+
+    private Timer checkoutTimer(String items, String outcome) {
+        return Timer.builder("webshop.checkout.latency")
+                .description("Time to price, reserve and store an order")
+                .tag("items", items)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordCheckout(int itemCount, long startNanos, boolean success) {
+        Timer[] timers = success ? succeeded : failed;
+        timers[bucket(itemCount)].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a request rejected with the given exception; called from the error handlers only.
+     * Counters are kept per exception type after the first rejection, so shed requests do not
+     * look up the registry.
+     */
+    public void recordRejection(Exception exception) {
+        Counter counter = rejections.get(exception.getClass());
+        if (counter == null) {
+            counter = rejections.computeIfAbsent(exception.getClass(), type ->
+                    Counter.builder("webshop.requests.rejected")
+                            .description("Requests answered with an error, by exception type")
+                            .tag("exception", type.getSimpleName())
+                            .register(registry));
+        }
+        counter.increment();
+    }
+
+    private static int bucket(int itemCount) {
+        if (itemCount <= 1) {
+            return 0;
+        }
+        if (itemCount <= 5) {
+            return 1;
+        }
+        return itemCount <= 20 ? 2 : 3;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.webshop.metrics;
+
+import com.example.webshop.model.Product;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repository sizes and per-product stock contention. These meters read counters the
+ * repositories maintain anyway, only when scraped, so they add nothing to the request path.
+ */
+@Component
+public class RepositoryMetrics implements MeterBinder {
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    public RepositoryMetrics(ProductRepository productRepository, OrderRepository orderRepository) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("webshop.orders.count", orderRepository, OrderRepository::count)
+                .description("Number of stored orders")
+                .register(registry);
+        Gauge.builder("webshop.products.count", productRepository, ProductRepository::count)
+                .description("Number of products in the catalog")
+                .register(registry);
+
+        for (Product product : productRepository.findAll()) {
+            Long productId = product.getId();
+            FunctionCounter.builder("webshop.stock.contention", productRepository,
+                            repository -> repository.getStockContention(productId))
+                    .description("Stock updates retried because a concurrent update won the compare-and-set")
+                    .tag("product", productId.toString())
+                    .register(registry);
+            Gauge.builder("webshop.stock.level", productRepository, repository -> repository.getStock(productId))
+                    .description("Units in stock")
+                    .tag("product", productId.toString())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.webshop.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one order in a bulk import: the created order, or the error that rejected it. A
+ * placed order that could not be synced to the log has status 202 and both an order and an error.
+ * {@code index} is the order's zero-based position in the submitted stream.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkOrderResult {
+    private int index;
+    private int status;
+    private Order order;
+    private String error;
+
+    public BulkOrderResult() {
+    }
+
+    public BulkOrderResult(int index, int status, Order order, String error) {
+        this.index = index;
+        this.status = status;
+        this.order = order;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
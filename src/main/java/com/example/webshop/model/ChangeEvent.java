@@ -0,0 +1,40 @@
+package com.example.webshop.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed: a created order or a stock change, numbered by its offset in
+ * the event log. {@code data} is the {@link Order} or {@link StockLevel}.
+ */
+public class ChangeEvent {
+    public static final String ORDER_CREATED = "order.created";
+    public static final String STOCK_CHANGED = "stock.changed";
+
+    private final long offset;
+    private final String type;
+    private final LocalDateTime timestamp;
+    private final Object data;
+
+    public ChangeEvent(long offset, String type, LocalDateTime timestamp, Object data) {
+        this.offset = offset;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.data = data;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Object getData() {
+        return data;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.webshop.model;
+
+import java.util.List;
+
+public class ChangeEventPage {
+    private final List<ChangeEvent> events;
+    private final long nextOffset;
+    private final boolean truncated;
+
+    public ChangeEventPage(List<ChangeEvent> events, long nextOffset, boolean truncated) {
+        this.events = events;
+        this.nextOffset = nextOffset;
+        this.truncated = truncated;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * The offset to read from next.
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Whether events between the requested offset and the first returned one had already been
+     * dropped from the log.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
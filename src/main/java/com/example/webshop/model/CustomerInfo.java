@@ -1,14 +1,23 @@
 package com.example.webshop.model;
 
-public class CustomerInfo {
-    private String name;
-    private String address;
-    private String email;
-
-    public CustomerInfo() {
-    }
-
-    public CustomerInfo(String name, String address, String email) {
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Customer details of an order. Immutable, so orders of a repeat customer can share one
+ * instance (see {@code CustomerRegistry}).
+ */
+public final class CustomerInfo {
+    private final String name;
+    private final String address;
+    private final String email;
+
+    @JsonCreator
+    public CustomerInfo(@JsonProperty("name") String name,
+                        @JsonProperty("address") String address,
+                        @JsonProperty("email") String email) {
         this.name = name;
         this.address = address;
         this.email = email;
@@ -18,23 +27,29 @@ public class CustomerInfo {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getAddress() {
         return address;
     }
 
-    public void setAddress(String address) {
-        this.address = address;
-    }
-
     public String getEmail() {
         return email;
     }
 
-    public void setEmail(String email) {
-        this.email = email;
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CustomerInfo other)) {
+            return false;
+        }
+        return Objects.equals(email, other.email)
+                && Objects.equals(name, other.name)
+                && Objects.equals(address, other.address);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, address, email);
     }
 }
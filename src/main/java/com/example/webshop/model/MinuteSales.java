@@ -0,0 +1,36 @@
+package com.example.webshop.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sales within one calendar minute, starting at {@code minute}.
+ */
+public class MinuteSales {
+    private final LocalDateTime minute;
+    private final long orders;
+    private final long unitsSold;
+    private final Money revenue;
+
+    public MinuteSales(LocalDateTime minute, long orders, long unitsSold, Money revenue) {
+        this.minute = minute;
+        this.orders = orders;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getMinute() {
+        return minute;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.webshop.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An exact amount of money, held as a whole number of minor units (öre, cents) with two
+ * decimal places. Arithmetic is exact {@code long} arithmetic and fails rather than overflow;
+ * {@link #lineTotal} and {@link #ofMinor} let totals be summed as primitives and wrapped once.
+ *
+ * <p>In JSON an amount is a plain number written with its exact decimal digits, for example
+ * {@code 12999.99}, never a binary floating-point approximation.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+    /**
+     * Longest text of any amount, {@code "-92233720368547758.08"}.
+     */
+    public static final int MAX_LENGTH = 21;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "12999.99"}.
+     *
+     * @throws IllegalArgumentException if the amount is not a number or has more than two decimals
+     */
+    public static Money of(String amount) {
+        try {
+            return of(new BigDecimal(amount));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a money amount: " + amount, e);
+        }
+    }
+
+    /**
+     * Converts an exact decimal amount.
+     *
+     * @throws IllegalArgumentException if the amount has more than two decimals or is out of range
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a money amount: " + amount.toPlainString(), e);
+        }
+    }
+
+    /**
+     * Converts a decimal amount, rounding it to the nearest minor unit where needed.
+     */
+    public static Money rounded(BigDecimal amount, RoundingMode roundingMode) {
+        return ofMinor(amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Price of {@code quantity} units at {@code unitMinorUnits} each, in minor units.
+     *
+     * @throws ArithmeticException if the result overflows
+     */
+    public static long lineTotal(long unitMinorUnits, int quantity) {
+        return Math.multiplyExact(unitMinorUnits, quantity);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return ofMinor(lineTotal(minorUnits, quantity));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * The amount with exactly two decimals, for example {@code "12999.99"} or {@code "-0.50"}.
+     */
+    @Override
+    public String toString() {
+        char[] text = new char[MAX_LENGTH];
+        return new String(text, 0, getChars(text, 0));
+    }
+
+    /**
+     * Writes the text of {@link #toString()} into {@code buffer}, which must have room for
+     * {@link #MAX_LENGTH} characters from {@code offset}.
+     *
+     * @return the number of characters written
+     */
+    public int getChars(char[] buffer, int offset) {
+        int end = offset + MAX_LENGTH;
+        int position = end;
+        // Negate into the negative range, which also holds Long.MIN_VALUE
+        long remaining = minorUnits < 0 ? minorUnits : -minorUnits;
+        for (int digit = 0; digit < SCALE; digit++) {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (minorUnits < 0) {
+            buffer[--position] = '-';
+        }
+        int length = end - position;
+        System.arraycopy(buffer, position, buffer, offset, length);
+        return length;
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            char[] text = new char[MAX_LENGTH];
+            gen.writeNumber(text, 0, value.getChars(text, 0));
+        }
+    }
+
+    /**
+     * Reads amounts written as JSON numbers or strings. Amounts with more than two decimals,
+     * such as sums stored as floating point by earlier versions, are rounded half-even.
+     */
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            BigDecimal amount;
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT || p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                amount = p.getDecimalValue();
+            } else if (p.currentToken() == JsonToken.VALUE_STRING) {
+                try {
+                    amount = new BigDecimal(p.getText().trim());
+                } catch (NumberFormatException e) {
+                    return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), "not a decimal amount");
+                }
+            } else {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return rounded(amount, RoundingMode.HALF_EVEN);
+            } catch (ArithmeticException e) {
+                return (Money) ctxt.handleWeirdNumberValue(Money.class, amount, "amount out of range");
+            }
+        }
+    }
+}
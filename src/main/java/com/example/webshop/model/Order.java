@@ -1,19 +1,23 @@
 package com.example.webshop.model;
 
+import com.example.webshop.json.OrderSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonSerialize(using = OrderSerializer.class)
 public class Order {
     private Long id;
     private CustomerInfo customerInfo;
     private List<OrderItem> items;
-    private double totalAmount;
+    private Money totalAmount;
     private LocalDateTime orderDate;
 
     public Order() {
     }
 
-    public Order(Long id, CustomerInfo customerInfo, List<OrderItem> items, double totalAmount, LocalDateTime orderDate) {
+    public Order(Long id, CustomerInfo customerInfo, List<OrderItem> items, Money totalAmount, LocalDateTime orderDate) {
         this.id = id;
         this.customerInfo = customerInfo;
         this.items = items;
@@ -45,11 +49,11 @@ public class Order {
         this.items = items;
     }
 
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -3,12 +3,12 @@ package com.example.webshop.model;
 public class OrderItem {
     private Long productId;
     private int quantity;
-    private double priceAtPurchase;
+    private Money priceAtPurchase;
 
     public OrderItem() {
     }
 
-    public OrderItem(Long productId, int quantity, double priceAtPurchase) {
+    public OrderItem(Long productId, int quantity, Money priceAtPurchase) {
         this.productId = productId;
         this.quantity = quantity;
         this.priceAtPurchase = priceAtPurchase;
@@ -30,11 +30,11 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
-    public double getPriceAtPurchase() {
+    public Money getPriceAtPurchase() {
         return priceAtPurchase;
     }
 
-    public void setPriceAtPurchase(double priceAtPurchase) {
+    public void setPriceAtPurchase(Money priceAtPurchase) {
         this.priceAtPurchase = priceAtPurchase;
     }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 public class OrderRequest {
     private CustomerInfo customerInfo;
     private List<OrderItemRequest> items;
+    private String reservationId;
 
     public OrderRequest() {
     }
@@ -29,4 +30,16 @@ public class OrderRequest {
     public void setItems(List<OrderItemRequest> items) {
         this.items = items;
     }
+
+    /**
+     * A reservation to turn into this order. Its held items become the order's items, so
+     * {@code items} must then be left out.
+     */
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
 }
@@ -1,17 +1,22 @@
 package com.example.webshop.model;
 
+import com.example.webshop.json.ProductSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Immutable view of a product. Live stock is kept by the product repository in its own counter
+ * store; {@link #getStock()} is the stock at the moment this view was taken.
+ */
+@JsonSerialize(using = ProductSerializer.class)
 public class Product {
-    private Long id;
-    private String name;
-    private String description;
-    private double price;
-    private String imageUrl;
-    private int stock;
-
-    public Product() {
-    }
-
-    public Product(Long id, String name, String description, double price, String imageUrl, int stock) {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final Money price;
+    private final String imageUrl;
+    private final int stock;
+
+    public Product(Long id, String name, String description, Money price, String imageUrl, int stock) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -24,47 +29,31 @@ public class Product {
         return id;
     }
 
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
-        this.price = price;
-    }
-
     public String getImageUrl() {
         return imageUrl;
     }
 
-    public void setImageUrl(String imageUrl) {
-        this.imageUrl = imageUrl;
-    }
-
     public int getStock() {
         return stock;
     }
 
-    public void setStock(int stock) {
-        this.stock = stock;
+    public Product withId(Long id) {
+        return new Product(id, name, description, price, imageUrl, stock);
+    }
+
+    public Product withStock(int stock) {
+        return stock == this.stock ? this : new Product(id, name, description, price, imageUrl, stock);
     }
 }
@@ -0,0 +1,31 @@
+package com.example.webshop.model;
+
+public class ProductSales {
+    private final long productId;
+    private final long orders;
+    private final long unitsSold;
+    private final Money revenue;
+
+    public ProductSales(long productId, long orders, long unitsSold, Money revenue) {
+        this.productId = productId;
+        this.orders = orders;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+}
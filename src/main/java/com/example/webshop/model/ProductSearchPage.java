@@ -0,0 +1,42 @@
+package com.example.webshop.model;
+
+import java.util.List;
+
+public class ProductSearchPage {
+    private List<Product> products;
+    private int total;
+    private Long nextCursor;
+
+    public ProductSearchPage() {
+    }
+
+    public ProductSearchPage(List<Product> products, int total, Long nextCursor) {
+        this.products = products;
+        this.total = total;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public void setProducts(List<Product> products) {
+        this.products = products;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.webshop.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stock held for a cart until {@code expiresAt}. Lines repeating a product are merged.
+ */
+public class Reservation {
+    private String id;
+    private List<OrderItemRequest> items;
+    private LocalDateTime expiresAt;
+
+    public Reservation() {
+    }
+
+    public Reservation(String id, List<OrderItemRequest> items, LocalDateTime expiresAt) {
+        this.id = id;
+        this.items = items;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<OrderItemRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemRequest> items) {
+        this.items = items;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
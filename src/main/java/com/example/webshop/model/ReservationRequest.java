@@ -0,0 +1,22 @@
+package com.example.webshop.model;
+
+import java.util.List;
+
+public class ReservationRequest {
+    private List<OrderItemRequest> items;
+
+    public ReservationRequest() {
+    }
+
+    public ReservationRequest(List<OrderItemRequest> items) {
+        this.items = items;
+    }
+
+    public List<OrderItemRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemRequest> items) {
+        this.items = items;
+    }
+}
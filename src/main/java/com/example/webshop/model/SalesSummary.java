@@ -0,0 +1,42 @@
+package com.example.webshop.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sales totals over a period, from the start of its first minute up to now.
+ */
+public class SalesSummary {
+    private final LocalDateTime from;
+    private final long orders;
+    private final long unitsSold;
+    private final Money revenue;
+    private final double ordersPerMinute;
+
+    public SalesSummary(LocalDateTime from, long orders, long unitsSold, Money revenue, double ordersPerMinute) {
+        this.from = from;
+        this.orders = orders;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+        this.ordersPerMinute = ordersPerMinute;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public double getOrdersPerMinute() {
+        return ordersPerMinute;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.webshop.model;
+
+/**
+ * The stock of a product at a point in time. The version increases with every change to
+ * the stock of that product, so the newest of two levels can be told apart with
+ * {@link #isNewer}. Versions are 32 bits wide and wrap around to 1 after 2^32 - 1 changes;
+ * 0 is only the version of a product whose stock has never changed.
+ */
+public class StockLevel {
+    private final Long productId;
+    private final int stock;
+    private final long version;
+
+    public StockLevel(Long productId, int stock, long version) {
+        this.productId = productId;
+        this.stock = stock;
+        this.version = version;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Tells whether {@code version} is newer than {@code than}. Across a wrap-around a version
+     * counts as newer if it is less than 2^31 changes ahead, so two levels of the same product
+     * are compared correctly as long as they are fewer changes apart than that.
+     */
+    public static boolean isNewer(long version, long than) {
+        return than == 0 ? version != 0 : (int) (version - than) > 0;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.webshop.persistence;
+
+import com.example.webshop.event.OrderDiscardedEvent;
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.event.ReservationCreatedEvent;
+import com.example.webshop.event.ReservationEndedEvent;
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes orders, stock levels and open reservations survive restarts. On startup the repositories
+ * are rebuilt from the latest snapshot plus the write-ahead log written after it; afterwards every
+ * created order, stock change and reservation created or ended is appended to the log, which is
+ * fsynced in batches and periodically compacted into a new snapshot. An order is logged before
+ * it is stored, and a failed append fails the order; an order that is logged but then cannot be
+ * stored is cancelled by a discard record, which recovery applies by removing it again. A request is answered once its records are
+ * appended, before the next batched fsync, so a crash can lose orders already acknowledged
+ * within the last fsync interval.
+ *
+ * <p>Recovered reservations are handed back to the reservation service once the application
+ * context is up, so holds that have expired meanwhile release their stock through the logged
+ * path rather than before this manager is listening.
+ *
+ * <p>Product metadata is not persisted; the catalog is still seeded by the product repository
+ * and only its stock levels are restored.
+ */
+@Component
+@ConditionalOnProperty(name = "webshop.persistence.enabled", havingValue = "true")
+public class PersistenceManager {
+    private static final Logger log = LoggerFactory.getLogger(PersistenceManager.class);
+
+    static final byte ORDER_CREATED = 1;
+    static final byte STOCK_CHANGED = 2;
+    static final byte RESERVATION_CREATED = 3;
+    static final byte RESERVATION_ENDED = 4;
+    static final byte ORDER_DISCARDED = 5;
+    private static final long MAX_SEGMENT_BYTES = 256L * 1024 * 1024;
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ReservationService reservationService;
+    private final ObjectReader orderReader;
+    private final ObjectWriter orderWriter;
+    private final ObjectReader reservationReader;
+    private final ObjectWriter reservationWriter;
+    // Reservation id -> hold still open after recovery, until handed to the reservation service
+    private final Map<String, Reservation> recoveredReservations = new LinkedHashMap<>();
+    private final SnapshotStore snapshots;
+    private final WriteAheadLog wal;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong appendedSinceSnapshot = new AtomicLong();
+
+    public PersistenceManager(ProductRepository productRepository,
+                              OrderRepository orderRepository,
+                              ReservationService reservationService,
+                              ObjectMapper objectMapper,
+                              @Value("${webshop.persistence.directory:data}") String directory,
+                              @Value("${webshop.persistence.fsync-interval-ms:10}") long fsyncIntervalMs,
+                              @Value("${webshop.persistence.snapshot-interval-seconds:300}") long snapshotIntervalSeconds)
+            throws IOException {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.reservationService = reservationService;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        this.reservationReader = objectMapper.readerFor(Reservation.class);
+        this.reservationWriter = objectMapper.writerFor(Reservation.class);
+
+        Path path = Paths.get(directory);
+        this.snapshots = new SnapshotStore(path);
+        recover(path);
+        this.wal = new WriteAheadLog(path, MAX_SEGMENT_BYTES);
+
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "webshop-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void recover(Path directory) throws IOException {
+        long started = System.nanoTime();
+        long[] snapshotOrders = new long[1];
+        long firstSegment = snapshots.read(new SnapshotStore.Visitor() {
+            @Override
+            public void onStockLevel(StockLevel stockLevel) {
+                productRepository.restoreStock(stockLevel);
+            }
+
+            @Override
+            public void onOrder(byte[] order) throws IOException {
+                orderRepository.restore(orderReader.readValue(order));
+                snapshotOrders[0]++;
+            }
+
+            @Override
+            public void onReservation(byte[] reservation) throws IOException {
+                Reservation recovered = reservationReader.readValue(reservation);
+                recoveredReservations.put(recovered.getId(), recovered);
+            }
+        });
+        byte[][] buffer = {new byte[4096]};
+        long replayed = WriteAheadLog.replay(directory, firstSegment,
+                (type, payload) -> applyRecord(type, payload, buffer));
+        log.info("Recovered {} orders from snapshot, {} log records and {} open reservations in {} ms",
+                snapshotOrders[0], replayed, recoveredReservations.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Recovery is single-threaded, so one scratch buffer is reused for every JSON record
+    private void applyRecord(byte type, ByteBuffer payload, byte[][] buffer) throws IOException {
+        switch (type) {
+            case ORDER_CREATED -> {
+                int length = copy(payload, buffer);
+                orderRepository.restore(orderReader.readValue(buffer[0], 0, length));
+            }
+            case STOCK_CHANGED -> productRepository.restoreStock(
+                    new StockLevel(payload.getLong(), payload.getInt(), payload.getLong()));
+            case RESERVATION_CREATED -> {
+                int length = copy(payload, buffer);
+                Reservation reservation = reservationReader.readValue(buffer[0], 0, length);
+                recoveredReservations.put(reservation.getId(), reservation);
+            }
+            // A discard follows its order's creation, so the order is there to remove unless a
+            // snapshot taken in between never had it
+            case ORDER_DISCARDED -> orderRepository.remove(payload.getLong());
+            // An end with no creation before it belongs to a hold already gone from the snapshot
+            case RESERVATION_ENDED -> recoveredReservations.remove(StandardCharsets.UTF_8.decode(payload).toString());
+            default -> throw new IOException("Unknown log record type: " + type);
+        }
+    }
+
+    private static int copy(ByteBuffer payload, byte[][] buffer) {
+        int length = payload.remaining();
+        if (buffer[0].length < length) {
+            buffer[0] = new byte[Math.max(length, buffer[0].length * 2)];
+        }
+        payload.get(buffer[0], 0, length);
+        return length;
+    }
+
+    @EventListener
+    public void onOrderStoring(OrderStoringEvent event) {
+        try {
+            append(ORDER_CREATED, orderWriter.writeValueAsBytes(event.getOrder()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log order " + event.getOrder().getId(), e);
+        }
+    }
+
+    @EventListener
+    public void onOrderDiscarded(OrderDiscardedEvent event) {
+        try {
+            append(ORDER_DISCARDED, ByteBuffer.allocate(Long.BYTES).putLong(event.getOrderId()).array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log discarded order " + event.getOrderId(), e);
+        }
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        StockLevel stockLevel = event.getStockLevel();
+        ByteBuffer payload = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + Long.BYTES)
+                .putLong(stockLevel.getProductId())
+                .putInt(stockLevel.getStock())
+                .putLong(stockLevel.getVersion());
+        try {
+            append(STOCK_CHANGED, payload.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log stock change for product " + stockLevel.getProductId(), e);
+        }
+    }
+
+    @EventListener
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        try {
+            append(RESERVATION_CREATED, reservationWriter.writeValueAsBytes(event.getReservation()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log reservation " + event.getReservation().getId(), e);
+        }
+    }
+
+    @EventListener
+    public void onReservationEnded(ReservationEndedEvent event) {
+        try {
+            append(RESERVATION_ENDED, event.getReservationId().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to log end of reservation " + event.getReservationId(), e);
+        }
+    }
+
+    /**
+     * Hands the reservations still open after recovery to the reservation service. Runs once the
+     * context is refreshed, so the events of holds expiring right away are logged.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void restoreReservations() {
+        List<Reservation> reservations = new ArrayList<>(recoveredReservations.values());
+        recoveredReservations.clear();
+        reservationService.restore(reservations);
+    }
+
+    private void append(byte type, byte[] payload) throws IOException {
+        wal.append(type, payload);
+        appendedSinceSnapshot.incrementAndGet();
+    }
+
+    /**
+     * Forces all log records appended so far to disk.
+     */
+    public void sync() throws IOException {
+        wal.sync();
+    }
+
+    /**
+     * Writes a new snapshot and deletes the log segments it covers. The log is rotated first,
+     * so every record in the older segments is already reflected in the repositories when they
+     * are copied. Records in the new segment may be reflected too; replaying them again is
+     * harmless because orders are keyed by id and stock levels are versioned.
+     */
+    public void snapshot() throws IOException {
+        if (appendedSinceSnapshot.getAndSet(0) == 0) {
+            return;
+        }
+        long firstSegment = wal.rotate();
+        try (SnapshotStore.Writer writer = snapshots.begin(firstSegment, productRepository.getStockLevels())) {
+            // Every stored order, not just the published ones: an order after one still being
+            // stored may already be logged in a segment this snapshot replaces
+            try {
+                orderRepository.forEach(order -> {
+                    try {
+                        writer.writeOrder(orderWriter.writeValueAsBytes(order));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            for (Reservation reservation : reservationService.getReservations()) {
+                writer.writeReservation(reservationWriter.writeValueAsBytes(reservation));
+            }
+            writer.commit();
+        }
+        wal.deleteSegmentsBefore(firstSegment);
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            log.error("Failed to sync write-ahead log", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            log.error("Failed to write snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        wal.close();
+    }
+}
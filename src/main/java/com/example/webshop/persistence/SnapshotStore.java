@@ -0,0 +1,143 @@
+package com.example.webshop.persistence;
+
+import com.example.webshop.model.StockLevel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Stores a full copy of the stock levels, orders and open reservations together with the first write-ahead log
+ * segment that is not covered by it. A snapshot is written to a temporary file and atomically
+ * moved into place, so a crash while writing leaves the previous snapshot intact.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x57534E50;
+    // Version 2 added reservations after the orders; version 1 files are still read
+    private static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final Path file;
+    private final Path tempFile;
+
+    public SnapshotStore(Path directory) {
+        this.file = directory.resolve("snapshot.bin");
+        this.tempFile = directory.resolve("snapshot.bin.tmp");
+    }
+
+    public interface Visitor {
+        void onStockLevel(StockLevel stockLevel);
+
+        void onOrder(byte[] order) throws IOException;
+
+        void onReservation(byte[] reservation) throws IOException;
+    }
+
+    /**
+     * Reads the current snapshot, if any.
+     *
+     * @return the first log segment to replay on top of the snapshot; 0 when there is no snapshot
+     */
+    public long read(Visitor visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot file: " + file);
+            }
+            long firstSegment = in.readLong();
+            int stockLevels = in.readInt();
+            for (int i = 0; i < stockLevels; i++) {
+                visitor.onStockLevel(new StockLevel(in.readLong(), in.readInt(), in.readLong()));
+            }
+            int length;
+            while ((length = in.readInt()) >= 0) {
+                byte[] order = new byte[length];
+                in.readFully(order);
+                visitor.onOrder(order);
+            }
+            if (version >= 2) {
+                while ((length = in.readInt()) >= 0) {
+                    byte[] reservation = new byte[length];
+                    in.readFully(reservation);
+                    visitor.onReservation(reservation);
+                }
+            }
+            return firstSegment;
+        }
+    }
+
+    public Writer begin(long firstSegment, List<StockLevel> stockLevels) throws IOException {
+        return new Writer(firstSegment, stockLevels);
+    }
+
+    public class Writer implements Closeable {
+        private final FileOutputStream fileOut;
+        private final DataOutputStream out;
+        private boolean ordersWritten;
+        private boolean committed;
+
+        private Writer(long firstSegment, List<StockLevel> stockLevels) throws IOException {
+            fileOut = new FileOutputStream(tempFile.toFile());
+            out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_BYTES));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(firstSegment);
+            out.writeInt(stockLevels.size());
+            for (StockLevel stockLevel : stockLevels) {
+                out.writeLong(stockLevel.getProductId());
+                out.writeInt(stockLevel.getStock());
+                out.writeLong(stockLevel.getVersion());
+            }
+        }
+
+        public void writeOrder(byte[] order) throws IOException {
+            if (ordersWritten) {
+                throw new IllegalStateException("Orders must be written before reservations");
+            }
+            out.writeInt(order.length);
+            out.write(order);
+        }
+
+        public void writeReservation(byte[] reservation) throws IOException {
+            endOrders();
+            out.writeInt(reservation.length);
+            out.write(reservation);
+        }
+
+        public void commit() throws IOException {
+            endOrders();
+            out.writeInt(-1);
+            out.flush();
+            fileOut.getChannel().force(true);
+            out.close();
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        private void endOrders() throws IOException {
+            if (!ordersWritten) {
+                ordersWritten = true;
+                out.writeInt(-1);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.webshop.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log split into numbered segment files. Each record is written as
+ * {@code [length][crc32][type][payload]}; appends only reach the page cache and are made
+ * durable in batches by {@link #sync()}. A record with a bad checksum or a truncated tail in the
+ * newest segment marks the end of the log after a crash and is cut off during replay; anywhere
+ * else it means records after it would be lost, so replay fails instead. An append that fails
+ * partway is cut off again straight away, so later records never land behind a torn one.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    // A lock rather than synchronized so virtual threads blocked on file I/O never pin their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    // Serializes forces, so a caller never returns while an earlier force covering its records is still running
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private FileChannel channel;
+    private long segment;
+    private boolean dirty;
+    // Set when a torn append could not be cut off; nothing may be appended behind it
+    private IOException broken;
+
+    public WriteAheadLog(Path directory, long maxSegmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        List<Long> segments = listSegments(directory);
+        this.segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        this.channel = openSegment(segment);
+    }
+
+    public void append(byte type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload).flip();
+
+        lock.lock();
+        try {
+            if (broken != null) {
+                throw new IOException("Log is unusable after a failed append", broken);
+            }
+            // The channel appends, so its position is the end of the segment
+            long start = channel.position();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                cutOff(start, e);
+                throw e;
+            }
+            dirty = true;
+            if (channel.position() >= maxSegmentBytes) {
+                rotateLocked();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk. The force itself runs outside the append lock so
+     * appends can continue while the disk catches up; callers arriving during a force wait for it
+     * and then share the next one.
+     */
+    public void sync() throws IOException {
+        syncLock.lock();
+        try {
+            FileChannel toForce;
+            lock.lock();
+            try {
+                if (!dirty) {
+                    return;
+                }
+                dirty = false;
+                toForce = channel;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                toForce.force(false);
+            } catch (ClosedChannelException e) {
+                // Rotated in the meantime; rotation forces the segment before closing it
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     *
+     * @return the number of the new segment; every record appended from now on lives in it or a later one
+     */
+    public long rotate() throws IOException {
+        lock.lock();
+        try {
+            rotateLocked();
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deleteSegmentsBefore(long firstKept) throws IOException {
+        for (long existing : listSegments(directory)) {
+            if (existing < firstKept) {
+                Files.deleteIfExists(segmentPath(directory, existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cutOff(long start, IOException failure) {
+        try {
+            channel.truncate(start);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+            broken = failure;
+        }
+    }
+
+    private void rotateLocked() throws IOException {
+        channel.force(false);
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        dirty = false;
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public interface RecordHandler {
+        void onRecord(byte type, ByteBuffer payload) throws IOException;
+    }
+
+    /**
+     * Replays every record in segments numbered {@code fromSegment} or higher, oldest first.
+     *
+     * @return the number of records replayed
+     */
+    public static long replay(Path directory, long fromSegment, RecordHandler handler) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long records = 0;
+        List<Long> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i) >= fromSegment) {
+                records += replaySegment(segmentPath(directory, segments.get(i)), handler, i == segments.size() - 1);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @param newest whether this is the segment being written when the process stopped, the only
+     *               one that may end in a torn record
+     */
+    private static long replaySegment(Path path, RecordHandler handler, boolean newest) throws IOException {
+        long records = 0;
+        long validBytes;
+        long fileBytes;
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            fileBytes = file.size();
+            MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            CRC32 crc = new CRC32();
+            while (data.remaining() >= HEADER_BYTES) {
+                int start = data.position();
+                int length = data.getInt();
+                int checksum = data.getInt();
+                byte type = data.get();
+                if (length < 0 || length > data.remaining()) {
+                    data.position(start);
+                    break;
+                }
+                ByteBuffer payload = data.slice(data.position(), length);
+                crc.reset();
+                crc.update(type);
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    data.position(start);
+                    break;
+                }
+                handler.onRecord(type, payload);
+                data.position(data.position() + length);
+                records++;
+            }
+            validBytes = data.position();
+        }
+        if (validBytes < fileBytes && !newest) {
+            throw new IOException("Corrupt log record at byte " + validBytes + " of " + path
+                    + ", which is followed by " + (fileBytes - validBytes) + " more bytes and later segments");
+        }
+        if (validBytes < fileBytes) {
+            // Torn write from a crash: drop the partial record so the segment ends cleanly
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                file.truncate(validBytes);
+            }
+        }
+        return records;
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> segments.add(Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))));
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+}
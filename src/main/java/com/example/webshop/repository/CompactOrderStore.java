@@ -0,0 +1,312 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Compact order storage for very large order counts. Order ids are dense, so an order is
+ * addressed directly by {@code id - 1} in struct-of-arrays columns instead of through a map of
+ * boxed keys. Order lines are packed into off-heap buffers, 20 bytes each. {@link Order}
+ * objects are only built when an order is read.
+ *
+ * <p>Each slot has a version that works as a seqlock: a writer makes it odd, fills in the
+ * columns and makes it even again, and a reader retries if the version was odd or changed while
+ * it read, so a reader never sees a half-written order, even while an order is replaced. A
+ * replacement with no more lines than before reuses the old lines' space; one with more gets new
+ * space, and the old lines' space is not reclaimed. Removing an order only marks its slot, and
+ * its lines' space is not reclaimed either.
+ */
+@Component
+@ConditionalOnProperty(name = "webshop.orders.storage", havingValue = "compact")
+public class CompactOrderStore implements OrderStore {
+    private static final int ORDER_CHUNK_SHIFT = 16;
+    private static final int ORDER_CHUNK_SLOTS = 1 << ORDER_CHUNK_SHIFT;
+    private static final int ORDER_CHUNK_MASK = ORDER_CHUNK_SLOTS - 1;
+    // Largest id whose chunk index still fits in an int
+    private static final long MAX_ID = (long) Integer.MAX_VALUE << ORDER_CHUNK_SHIFT;
+
+    // productId (8) + quantity (4) + priceAtPurchase in minor units (8)
+    private static final int ITEM_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int ITEM_CHUNK_SHIFT = 20;
+    private static final int ITEM_CHUNK_ITEMS = 1 << ITEM_CHUNK_SHIFT;
+    private static final int ITEM_CHUNK_MASK = ITEM_CHUNK_ITEMS - 1;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final long NO_PRODUCT = Long.MIN_VALUE;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final int NO_ITEMS = -1;
+    // Item count of a slot whose order was removed
+    private static final int REMOVED = -2;
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile OrderChunk[] orderChunks = new OrderChunk[0];
+    private volatile ByteBuffer[] itemChunks = new ByteBuffer[0];
+    private final AtomicLong nextItem = new AtomicLong();
+    private final LongAdder size = new LongAdder();
+
+    @Override
+    public void put(Order order) {
+        Long id = order.getId();
+        if (id == null || id < 1 || id > MAX_ID) {
+            throw new IllegalArgumentException("Order id out of range: " + id);
+        }
+        List<OrderItem> items = order.getItems();
+        int itemCount = items == null ? NO_ITEMS : items.size();
+        if (itemCount > ITEM_CHUNK_ITEMS) {
+            throw new IllegalArgumentException("Order has too many items: " + itemCount);
+        }
+        long slot = id - 1;
+        OrderChunk chunk = orderChunk(slot, true);
+        int index = (int) (slot & ORDER_CHUNK_MASK);
+
+        int version = beginWrite(chunk.versions, index);
+        // A removed slot's count is below any new one, so its old lines are never reused
+        int previousCount = version == 1 ? REMOVED : chunk.itemCounts[index];
+        try {
+            long firstItem = itemCount <= 0 ? 0
+                    : itemCount <= previousCount ? chunk.firstItems[index]
+                    : allocateItems(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                writeItem(firstItem + i, items.get(i));
+            }
+
+            LocalDateTime orderDate = order.getOrderDate();
+            chunk.customers[index] = order.getCustomerInfo();
+            chunk.totalAmounts[index] = toMinorUnits(order.getTotalAmount());
+            chunk.dateSeconds[index] = orderDate == null ? NO_DATE : orderDate.toEpochSecond(ZoneOffset.UTC);
+            chunk.dateNanos[index] = orderDate == null ? 0 : orderDate.getNano();
+            chunk.firstItems[index] = firstItem;
+            chunk.itemCounts[index] = itemCount;
+        } finally {
+            chunk.versions.set(index, version + 1);
+        }
+        if (previousCount == REMOVED) {
+            size.increment();
+        }
+    }
+
+    @Override
+    public void remove(long id) {
+        long slot = id - 1;
+        OrderChunk chunk = orderChunk(slot, false);
+        if (chunk == null) {
+            return;
+        }
+        int index = (int) (slot & ORDER_CHUNK_MASK);
+        int version = beginWrite(chunk.versions, index);
+        int previousCount = version == 1 ? REMOVED : chunk.itemCounts[index];
+        chunk.customers[index] = null;
+        chunk.itemCounts[index] = REMOVED;
+        chunk.versions.set(index, version + 1);
+        if (previousCount != REMOVED) {
+            size.decrement();
+        }
+    }
+
+    @Override
+    public Order get(long id) {
+        long slot = id - 1;
+        OrderChunk chunk = orderChunk(slot, false);
+        if (chunk == null) {
+            return null;
+        }
+        int index = (int) (slot & ORDER_CHUNK_MASK);
+        while (true) {
+            int version = chunk.versions.get(index);
+            if (version < 2) {
+                return null;
+            }
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // A read overlapping a replacement can combine columns of both orders and fail on
+            // them; that only counts if the version shows nothing was replaced
+            Order order = null;
+            RuntimeException failure = null;
+            try {
+                order = read(chunk, index, id);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            VarHandle.loadLoadFence();
+            if (chunk.versions.get(index) == version) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return order;
+            }
+        }
+    }
+
+    /**
+     * Makes the version of a slot odd once no other writer holds it.
+     *
+     * @return the odd version now held
+     */
+    private static int beginWrite(AtomicIntegerArray versions, int index) {
+        while (true) {
+            int version = versions.get(index);
+            if ((version & 1) == 0 && versions.compareAndSet(index, version, version + 1)) {
+                // The column writes must not become visible before the odd version
+                VarHandle.storeStoreFence();
+                return version + 1;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private Order read(OrderChunk chunk, int index, long id) {
+        int itemCount = chunk.itemCounts[index];
+        if (itemCount == REMOVED) {
+            return null;
+        }
+        List<OrderItem> items = null;
+        if (itemCount != NO_ITEMS) {
+            items = new ArrayList<>(itemCount);
+            long firstItem = chunk.firstItems[index];
+            for (int i = 0; i < itemCount; i++) {
+                items.add(readItem(firstItem + i));
+            }
+        }
+        long dateSeconds = chunk.dateSeconds[index];
+        LocalDateTime orderDate = dateSeconds == NO_DATE
+                ? null
+                : LocalDateTime.ofEpochSecond(dateSeconds, chunk.dateNanos[index], ZoneOffset.UTC);
+        return new Order(id, chunk.customers[index], items, toMoney(chunk.totalAmounts[index]), orderDate);
+    }
+
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    @Override
+    public void forEach(Consumer<Order> action) {
+        long slots = (long) orderChunks.length << ORDER_CHUNK_SHIFT;
+        for (long id = 1; id <= slots; id++) {
+            Order order = get(id);
+            if (order != null) {
+                action.accept(order);
+            }
+        }
+    }
+
+    private OrderChunk orderChunk(long slot, boolean create) {
+        if (slot < 0 || slot >= MAX_ID) {
+            return null;
+        }
+        int chunkIndex = (int) (slot >> ORDER_CHUNK_SHIFT);
+        OrderChunk[] chunks = orderChunks;
+        if (chunkIndex < chunks.length && chunks[chunkIndex] != null) {
+            return chunks[chunkIndex];
+        }
+        if (!create) {
+            return null;
+        }
+        growLock.lock();
+        try {
+            chunks = orderChunks;
+            if (chunkIndex >= chunks.length) {
+                OrderChunk[] grown = new OrderChunk[Math.max(chunkIndex + 1, chunks.length * 2)];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+            if (chunks[chunkIndex] == null) {
+                chunks[chunkIndex] = new OrderChunk();
+            }
+            orderChunks = chunks;
+            return chunks[chunkIndex];
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private long allocateItems(int count) {
+        long current;
+        long first;
+        // An order's lines never straddle two item chunks
+        do {
+            current = nextItem.get();
+            long chunkEnd = ((current >> ITEM_CHUNK_SHIFT) + 1) << ITEM_CHUNK_SHIFT;
+            first = current + count > chunkEnd ? chunkEnd : current;
+        } while (!nextItem.compareAndSet(current, first + count));
+        ensureItemChunk((int) (first >> ITEM_CHUNK_SHIFT));
+        return first;
+    }
+
+    private void ensureItemChunk(int chunkIndex) {
+        ByteBuffer[] chunks = itemChunks;
+        if (chunkIndex < chunks.length && chunks[chunkIndex] != null) {
+            return;
+        }
+        growLock.lock();
+        try {
+            chunks = itemChunks;
+            if (chunkIndex >= chunks.length) {
+                ByteBuffer[] grown = new ByteBuffer[Math.max(chunkIndex + 1, chunks.length * 2)];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+            if (chunks[chunkIndex] == null) {
+                chunks[chunkIndex] = ByteBuffer.allocateDirect(ITEM_CHUNK_ITEMS * ITEM_BYTES);
+            }
+            itemChunks = chunks;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private void writeItem(long item, OrderItem orderItem) {
+        ByteBuffer chunk = itemChunks[(int) (item >> ITEM_CHUNK_SHIFT)];
+        int offset = (int) (item & ITEM_CHUNK_MASK) * ITEM_BYTES;
+        Long productId = orderItem.getProductId();
+        chunk.putLong(offset, productId == null ? NO_PRODUCT : productId);
+        chunk.putInt(offset + Long.BYTES, orderItem.getQuantity());
+        chunk.putLong(offset + Long.BYTES + Integer.BYTES, toMinorUnits(orderItem.getPriceAtPurchase()));
+    }
+
+    private OrderItem readItem(long item) {
+        ByteBuffer chunk = itemChunks[(int) (item >> ITEM_CHUNK_SHIFT)];
+        int offset = (int) (item & ITEM_CHUNK_MASK) * ITEM_BYTES;
+        long productId = chunk.getLong(offset);
+        return new OrderItem(productId == NO_PRODUCT ? null : productId,
+                chunk.getInt(offset + Long.BYTES),
+                toMoney(chunk.getLong(offset + Long.BYTES + Integer.BYTES)));
+    }
+
+    private static long toMinorUnits(Money amount) {
+        return amount == null ? NO_AMOUNT : amount.getMinorUnits();
+    }
+
+    private static Money toMoney(long minorUnits) {
+        return minorUnits == NO_AMOUNT ? null : Money.ofMinor(minorUnits);
+    }
+
+    private static class OrderChunk {
+        private final CustomerInfo[] customers = new CustomerInfo[ORDER_CHUNK_SLOTS];
+        private final long[] totalAmounts = new long[ORDER_CHUNK_SLOTS];
+        private final long[] dateSeconds = new long[ORDER_CHUNK_SLOTS];
+        private final int[] dateNanos = new int[ORDER_CHUNK_SLOTS];
+        private final long[] firstItems = new long[ORDER_CHUNK_SLOTS];
+        private final int[] itemCounts = new int[ORDER_CHUNK_SLOTS];
+        // Per slot: 0 never written, odd while being written, even and above 0 once stored
+        private final AtomicIntegerArray versions = new AtomicIntegerArray(ORDER_CHUNK_SLOTS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical {@link CustomerInfo} per customer, so the orders of a repeat customer share one
+ * instance instead of each keeping its own copy of the name, address and email strings.
+ *
+ * <p>Customers are keyed by normalized email. The registry holds them only weakly: a customer
+ * stays registered while some stored order refers to it and is dropped after the last one is
+ * gone. When a customer orders with changed details, the new details become the canonical
+ * instance for later orders; earlier orders keep the details they were placed with.
+ */
+@Component
+public class CustomerRegistry {
+    private final ConcurrentHashMap<String, CustomerReference> customers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<CustomerInfo> collected = new ReferenceQueue<>();
+
+    /**
+     * Email in the form customers are keyed by: trimmed and lower case.
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the registered instance equal to {@code customerInfo}, or registers and returns
+     * {@code customerInfo} itself if there is none.
+     */
+    public CustomerInfo canonicalize(CustomerInfo customerInfo) {
+        if (customerInfo == null || customerInfo.getEmail() == null) {
+            return customerInfo;
+        }
+        expungeCollected();
+        String key = normalizeEmail(customerInfo.getEmail());
+        CustomerReference reference = customers.get(key);
+        CustomerInfo registered = reference == null ? null : reference.get();
+        if (customerInfo.equals(registered)) {
+            return registered;
+        }
+        CustomerReference result = customers.compute(key, (k, current) -> {
+            CustomerInfo existing = current == null ? null : current.get();
+            return customerInfo.equals(existing) ? current : new CustomerReference(k, customerInfo, collected);
+        });
+        CustomerInfo canonical = result.get();
+        // Null only if the registered instance was collected just now; ours is equal to it
+        return canonical != null ? canonical : customerInfo;
+    }
+
+    public int size() {
+        expungeCollected();
+        return customers.size();
+    }
+
+    private void expungeCollected() {
+        CustomerReference reference;
+        while ((reference = (CustomerReference) collected.poll()) != null) {
+            customers.remove(reference.key, reference);
+        }
+    }
+
+    private static final class CustomerReference extends WeakReference<CustomerInfo> {
+        private final String key;
+
+        CustomerReference(String key, CustomerInfo customerInfo, ReferenceQueue<CustomerInfo> queue) {
+            super(customerInfo, queue);
+            this.key = key;
+        }
+    }
+}
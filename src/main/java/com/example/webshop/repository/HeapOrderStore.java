@@ -0,0 +1,44 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.Order;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps orders as regular objects. ConcurrentHashMap stripes its locks per bin and never locks
+ * on reads, so lookups stay O(1) and never wait on concurrent saves.
+ */
+@Component
+@ConditionalOnProperty(name = "webshop.orders.storage", havingValue = "objects", matchIfMissing = true)
+public class HeapOrderStore implements OrderStore {
+    private final Map<Long, Order> orders = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Order order) {
+        orders.put(order.getId(), order);
+    }
+
+    @Override
+    public Order get(long id) {
+        return orders.get(id);
+    }
+
+    @Override
+    public void remove(long id) {
+        orders.remove(id);
+    }
+
+    @Override
+    public long size() {
+        return orders.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Order> action) {
+        orders.values().forEach(action);
+    }
+}
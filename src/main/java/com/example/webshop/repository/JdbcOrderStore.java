@@ -0,0 +1,418 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps orders in an embedded SQL database, H2 by default, so they outlive a restart without
+ * the write-ahead log. Reads run in parallel on a Hikari connection pool.
+ *
+ * <p>Only orders are kept here. Stock levels and reservations stay in memory, so without the
+ * write-ahead log a restart brings the orders back but resets stock to its seeded levels, as if
+ * those orders had never taken any. Enable persistence as well to keep the two consistent.
+ *
+ * <p>Writes are group-committed: a single writer thread takes every order queued so far, up to
+ * {@code max-batch-size}, and stores them with batched statements in one transaction. Removals
+ * go through the same queue, so they apply in order with the writes of the same order.
+ * {@link #put} returns once its batch has committed, so a stored order can be read back straight
+ * away, and concurrent checkouts share one commit instead of paying for one each.
+ */
+@Component
+@ConditionalOnProperty(name = "webshop.orders.storage", havingValue = "jdbc")
+public class JdbcOrderStore implements OrderStore, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(JdbcOrderStore.class);
+    private static final long IDLE_POLL_MS = 100;
+    private static final int NO_ITEMS = -1;
+
+    private static final String CREATE_ORDERS = """
+            CREATE TABLE IF NOT EXISTS orders (
+                id BIGINT PRIMARY KEY,
+                has_customer BOOLEAN NOT NULL,
+                customer_name VARCHAR,
+                customer_address VARCHAR,
+                customer_email VARCHAR,
+                total_amount BIGINT,
+                order_date TIMESTAMP(9),
+                item_count INT NOT NULL)""";
+    private static final String CREATE_ORDER_ITEMS = """
+            CREATE TABLE IF NOT EXISTS order_items (
+                order_id BIGINT NOT NULL,
+                line_no INT NOT NULL,
+                product_id BIGINT,
+                quantity INT NOT NULL,
+                price_at_purchase BIGINT,
+                PRIMARY KEY (order_id, line_no))""";
+    // Both bind the id last, so they share bindOrder. Updating first tells which orders are new.
+    private static final String UPDATE_ORDER = """
+            UPDATE orders SET has_customer = ?, customer_name = ?, customer_address = ?, customer_email = ?,
+                              total_amount = ?, order_date = ?, item_count = ?
+            WHERE id = ?""";
+    private static final String INSERT_ORDER = """
+            INSERT INTO orders (has_customer, customer_name, customer_address, customer_email,
+                                total_amount, order_date, item_count, id)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+    private static final String DELETE_ORDER_ITEMS = "DELETE FROM order_items WHERE order_id = ?";
+    private static final String DELETE_ORDER = "DELETE FROM orders WHERE id = ?";
+    private static final String INSERT_ORDER_ITEM = """
+            INSERT INTO order_items (order_id, line_no, product_id, quantity, price_at_purchase)
+            VALUES (?, ?, ?, ?, ?)""";
+    // Items come back in line order after their order's columns, one row per line
+    private static final String SELECT_ORDERS = """
+            SELECT o.id, o.has_customer, o.customer_name, o.customer_address, o.customer_email,
+                   o.total_amount, o.order_date, o.item_count, i.product_id, i.quantity, i.price_at_purchase
+            FROM orders o LEFT JOIN order_items i ON i.order_id = o.id""";
+    private static final String SELECT_ORDER = SELECT_ORDERS + " WHERE o.id = ? ORDER BY i.line_no";
+    private static final String SELECT_ALL_ORDERS = SELECT_ORDERS + " ORDER BY o.id, i.line_no";
+    // The limit applies to orders, not to the joined item rows
+    private static final String SELECT_ORDER_PAGE = """
+            SELECT o.id, o.has_customer, o.customer_name, o.customer_address, o.customer_email,
+                   o.total_amount, o.order_date, o.item_count, i.product_id, i.quantity, i.price_at_purchase
+            FROM (SELECT * FROM orders WHERE id > ? AND id <= ? ORDER BY id LIMIT ?) o
+            LEFT JOIN order_items i ON i.order_id = o.id
+            ORDER BY o.id, i.line_no""";
+    private static final String COUNT_ORDERS = "SELECT COUNT(*) FROM orders";
+
+    private final HikariDataSource dataSource;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    // Rows in the orders table, seeded on startup and moved by each committed batch
+    private final AtomicLong size = new AtomicLong();
+    private final int maxBatchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public JdbcOrderStore(@Value("${webshop.orders.jdbc.url:jdbc:h2:./data/orders}") String url,
+                          @Value("${webshop.orders.jdbc.username:sa}") String username,
+                          @Value("${webshop.orders.jdbc.password:}") String password,
+                          @Value("${webshop.orders.jdbc.pool-size:8}") int poolSize,
+                          @Value("${webshop.orders.jdbc.max-batch-size:256}") int maxBatchSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setPoolName("order-store");
+        this.dataSource = new HikariDataSource(config);
+        this.maxBatchSize = maxBatchSize;
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_ORDERS);
+            statement.execute(CREATE_ORDER_ITEMS);
+            try (ResultSet rows = statement.executeQuery(COUNT_ORDERS)) {
+                rows.next();
+                size.set(rows.getLong(1));
+            }
+        } catch (SQLException e) {
+            dataSource.close();
+            throw new IllegalStateException("Could not open order database " + url, e);
+        }
+        this.writer = new Thread(this::run, "order-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void put(Order order) {
+        await(new PendingWrite(order.getId(), order));
+    }
+
+    @Override
+    public void remove(long id) {
+        await(new PendingWrite(id, null));
+    }
+
+    private void await(PendingWrite pending) {
+        if (!running) {
+            throw new IllegalStateException("Order store is closed");
+        }
+        queue.add(pending);
+        // A close that raced with the check above may have drained the queue and stopped the
+        // writer already; a write still queued then would never complete
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Order store is closed");
+        }
+        try {
+            pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while storing order " + pending.id, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not store order " + pending.id, e.getCause());
+        }
+    }
+
+    @Override
+    public Order get(long id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_ORDER)) {
+            statement.setLong(1, id);
+            Order[] found = new Order[1];
+            try (ResultSet rows = statement.executeQuery()) {
+                readOrders(rows, order -> found[0] = order);
+            }
+            return found[0];
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read order " + id, e);
+        }
+    }
+
+    @Override
+    public List<Order> findPage(long afterId, long maxId, int limit) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_ORDER_PAGE)) {
+            statement.setLong(1, afterId);
+            statement.setLong(2, maxId);
+            statement.setInt(3, limit);
+            List<Order> page = new ArrayList<>(Math.min(limit, 64));
+            try (ResultSet rows = statement.executeQuery()) {
+                readOrders(rows, page::add);
+            }
+            return page;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read orders after " + afterId, e);
+        }
+    }
+
+    @Override
+    public long size() {
+        return size.get();
+    }
+
+    @Override
+    public void forEach(Consumer<Order> action) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setFetchSize(1000);
+            try (ResultSet rows = statement.executeQuery(SELECT_ALL_ORDERS)) {
+                readOrders(rows, action);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read orders", e);
+        }
+    }
+
+    /**
+     * Stores the orders still queued, then closes the connection pool. Orders the writer has not
+     * stored within ten seconds, or by the time the calling thread is interrupted, are failed.
+     */
+    @Override
+    @PreDestroy
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Order store writer did not finish in time; failing the orders still queued");
+            writer.interrupt();
+        }
+        PendingWrite pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("Order store is closed"));
+        }
+        dataSource.close();
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+                for (PendingWrite pending : batch) {
+                    pending.future.complete(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException | RuntimeException e) {
+                log.error("Order batch failed", e);
+                for (PendingWrite pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) throws SQLException {
+        // Only the last write of an order in the batch counts; its lines replace the stored ones.
+        // A removal is kept as a null order.
+        Map<Long, Order> latest = new LinkedHashMap<>();
+        for (PendingWrite pending : batch) {
+            latest.put(pending.id, pending.order);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement updateOrder = connection.prepareStatement(UPDATE_ORDER);
+                 PreparedStatement insertOrder = connection.prepareStatement(INSERT_ORDER);
+                 PreparedStatement deleteItems = connection.prepareStatement(DELETE_ORDER_ITEMS);
+                 PreparedStatement insertItem = connection.prepareStatement(INSERT_ORDER_ITEM);
+                 PreparedStatement deleteOrder = connection.prepareStatement(DELETE_ORDER)) {
+                List<Order> written = new ArrayList<>(latest.size());
+                for (Map.Entry<Long, Order> entry : latest.entrySet()) {
+                    Order order = entry.getValue();
+                    deleteItems.setLong(1, entry.getKey());
+                    deleteItems.addBatch();
+                    if (order == null) {
+                        deleteOrder.setLong(1, entry.getKey());
+                        deleteOrder.addBatch();
+                        continue;
+                    }
+                    bindOrder(updateOrder, order);
+                    updateOrder.addBatch();
+                    written.add(order);
+                    List<OrderItem> items = order.getItems();
+                    for (int line = 0; items != null && line < items.size(); line++) {
+                        bindItem(insertItem, order.getId(), line, items.get(line));
+                        insertItem.addBatch();
+                    }
+                }
+                int[] updated = updateOrder.executeBatch();
+                int inserted = 0;
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] == 0) {
+                        bindOrder(insertOrder, written.get(i));
+                        insertOrder.addBatch();
+                        inserted++;
+                    }
+                }
+                insertOrder.executeBatch();
+                deleteItems.executeBatch();
+                insertItem.executeBatch();
+                int deleted = 0;
+                for (int count : deleteOrder.executeBatch()) {
+                    deleted += count;
+                }
+                connection.commit();
+                size.addAndGet(inserted - deleted);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void bindOrder(PreparedStatement statement, Order order) throws SQLException {
+        CustomerInfo customerInfo = order.getCustomerInfo();
+        statement.setBoolean(1, customerInfo != null);
+        statement.setString(2, customerInfo == null ? null : customerInfo.getName());
+        statement.setString(3, customerInfo == null ? null : customerInfo.getAddress());
+        statement.setString(4, customerInfo == null ? null : customerInfo.getEmail());
+        setMoney(statement, 5, order.getTotalAmount());
+        if (order.getOrderDate() == null) {
+            statement.setNull(6, Types.TIMESTAMP);
+        } else {
+            statement.setObject(6, order.getOrderDate());
+        }
+        statement.setInt(7, order.getItems() == null ? NO_ITEMS : order.getItems().size());
+        statement.setLong(8, order.getId());
+    }
+
+    private static void bindItem(PreparedStatement statement, long orderId, int line, OrderItem item)
+            throws SQLException {
+        statement.setLong(1, orderId);
+        statement.setInt(2, line);
+        if (item.getProductId() == null) {
+            statement.setNull(3, Types.BIGINT);
+        } else {
+            statement.setLong(3, item.getProductId());
+        }
+        statement.setInt(4, item.getQuantity());
+        setMoney(statement, 5, item.getPriceAtPurchase());
+    }
+
+    private static void setMoney(PreparedStatement statement, int index, Money amount) throws SQLException {
+        if (amount == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, amount.getMinorUnits());
+        }
+    }
+
+    /**
+     * Builds orders from rows of {@link #SELECT_ORDERS}, where the rows of one order are
+     * adjacent, and hands each one to {@code action} once all its lines have been read.
+     */
+    private static void readOrders(ResultSet rows, Consumer<Order> action) throws SQLException {
+        Order order = null;
+        while (rows.next()) {
+            long id = rows.getLong(1);
+            if (order == null || order.getId() != id) {
+                if (order != null) {
+                    action.accept(order);
+                }
+                order = readOrder(rows, id);
+            }
+            if (order.getItems() != null && rows.getObject(10) != null) {
+                order.getItems().add(new OrderItem(rows.getObject(9, Long.class), rows.getInt(10),
+                        getMoney(rows, 11)));
+            }
+        }
+        if (order != null) {
+            action.accept(order);
+        }
+    }
+
+    private static Order readOrder(ResultSet rows, long id) throws SQLException {
+        CustomerInfo customerInfo = rows.getBoolean(2)
+                ? new CustomerInfo(rows.getString(3), rows.getString(4), rows.getString(5))
+                : null;
+        int itemCount = rows.getInt(8);
+        List<OrderItem> items = itemCount == NO_ITEMS ? null : new ArrayList<>(itemCount);
+        return new Order(id, customerInfo, items, getMoney(rows, 6), rows.getObject(7, LocalDateTime.class));
+    }
+
+    private static Money getMoney(ResultSet rows, int index) throws SQLException {
+        long minorUnits = rows.getLong(index);
+        return rows.wasNull() ? null : Money.ofMinor(minorUnits);
+    }
+
+    private static class PendingWrite {
+        private final long id;
+        // null for a removal
+        private final Order order;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(long id, Order order) {
+            this.id = id;
+            this.order = order;
+        }
+    }
+}
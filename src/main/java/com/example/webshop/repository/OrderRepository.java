@@ -1,28 +1,265 @@
 package com.example.webshop.repository;
 
+import com.example.webshop.event.OrderCreatedEvent;
+import com.example.webshop.event.OrderDiscardedEvent;
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.model.CustomerInfo;
 import com.example.webshop.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
 @Component
 public class OrderRepository {
-    private final Map<Long, Order> orders = new HashMap<>();
-    private long nextId = 1;
+    // Ids that can finish ahead of one still being stored before saves wait for it
+    private static final int PUBLISH_WINDOW = 1 << 14;
+    private static final int PUBLISH_MASK = PUBLISH_WINDOW - 1;
 
+    private final OrderStore orders;
+    // Highest id a persistent store held when this repository was created
+    private final long storedUpTo;
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Every id up to here is stored or will never be; pages stop here, so a cursor can never move
+    // past an order that has its id but is still being stored
+    private final AtomicLong publishedId = new AtomicLong();
+    // Ids finished ahead of publishedId: the slot of a finished range's first id holds its last id
+    private final AtomicLongArray finished = new AtomicLongArray(PUBLISH_WINDOW);
+    // Normalized customer email -> ids of that customer's orders, for customer history
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Long>> idsByEmail = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final CustomerRegistry customerRegistry;
+
+    @Autowired
+    public OrderRepository(ApplicationEventPublisher eventPublisher, OrderStore orders,
+                           CustomerRegistry customerRegistry) {
+        this.eventPublisher = eventPublisher;
+        this.orders = orders;
+        this.customerRegistry = customerRegistry;
+        // A persistent store may already hold orders from an earlier run
+        orders.forEach(order -> {
+            reserveId(order.getId());
+            index(order, null);
+        });
+        storedUpTo = nextId.get() - 1;
+        publishedId.set(storedUpTo);
+    }
+
+    public OrderRepository(ApplicationEventPublisher eventPublisher, OrderStore orders) {
+        this(eventPublisher, orders, new CustomerRegistry());
+    }
+
+    /**
+     * Stores an order, assigning it the next id if it has none. A new order is announced with
+     * {@link OrderStoringEvent} before it is stored, so the write-ahead log has it before anyone
+     * can read it, and a failed append fails the save. If the store then fails, the order is
+     * announced as discarded so the log can cancel it. Only once it is stored is it published
+     * as created.
+     */
     public Order save(Order order) {
-        if (order.getId() == null) {
-            order.setId(nextId++);
+        boolean created = order.getId() == null;
+        long firstNewId;
+        if (created) {
+            firstNewId = nextId.getAndIncrement();
+            order.setId(firstNewId);
+        } else {
+            firstNewId = reserveId(order.getId());
+        }
+        try {
+            if (created) {
+                eventPublisher.publishEvent(new OrderStoringEvent(order));
+                try {
+                    put(order, true);
+                } catch (RuntimeException e) {
+                    discard(order.getId(), e);
+                    throw e;
+                }
+            } else {
+                put(order, false);
+            }
+        } finally {
+            publish(firstNewId, order.getId());
+        }
+        if (created) {
+            eventPublisher.publishEvent(new OrderCreatedEvent(order));
         }
-        orders.put(order.getId(), order);
         return order;
     }
 
+    /**
+     * Puts back an order recovered from persistent storage, without publishing it as new. An
+     * order a persistent store already held at startup is left as it is rather than written again.
+     */
+    public void restore(Order order) {
+        if (order.getId() <= storedUpTo && orders.get(order.getId()) != null) {
+            return;
+        }
+        long firstNewId = reserveId(order.getId());
+        try {
+            put(order, false);
+        } finally {
+            publish(firstNewId, order.getId());
+        }
+    }
+
+    /**
+     * Removes an order, for recovery replaying an order the log later cancelled.
+     */
+    public void remove(long id) {
+        Order previous = orders.get(id);
+        if (previous == null) {
+            return;
+        }
+        orders.remove(id);
+        String key = emailKey(previous);
+        if (key != null) {
+            unindex(key, id);
+        }
+    }
+
     public Optional<Order> findById(Long id) {
         return Optional.ofNullable(orders.get(id));
     }
 
     public List<Order> findAll() {
-        return new ArrayList<>(orders.values());
+        return findPage(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to {@code limit} orders with an id greater than {@code afterId}, in id order.
+     * Only orders up to the published id are returned: an order that has its id but is still
+     * being stored holds back every order after it, so paging never skips it. A page shorter
+     * than {@code limit} therefore holds every order stored so far after {@code afterId}.
+     */
+    public List<Order> findPage(long afterId, int limit) {
+        return orders.findPage(afterId, publishedId.get(), limit);
+    }
+
+    /**
+     * Hands every stored order to {@code action}, in no particular order, including orders
+     * after the published id.
+     */
+    public void forEach(Consumer<Order> action) {
+        orders.forEach(action);
+    }
+
+    /**
+     * Returns up to {@code limit} orders of the customer with the given email, newest first,
+     * with an id less than {@code beforeId} ({@code null} for the newest). Emails are matched
+     * ignoring case and surrounding whitespace. The customer's order ids are kept sorted, so a
+     * page costs its own size whatever the total number of orders.
+     */
+    public List<Order> findPageByCustomerEmail(String email, Long beforeId, int limit) {
+        ConcurrentSkipListSet<Long> ids = email == null ? null : idsByEmail.get(CustomerRegistry.normalizeEmail(email));
+        if (ids == null) {
+            return List.of();
+        }
+        NavigableSet<Long> newestFirst = beforeId == null
+                ? ids.descendingSet()
+                : ids.headSet(beforeId, false).descendingSet();
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        for (Iterator<Long> it = newestFirst.iterator(); it.hasNext() && page.size() < limit; ) {
+            Order order = orders.get(it.next());
+            if (order != null) {
+                page.add(order);
+            }
+        }
+        return page;
+    }
+
+    public long count() {
+        return orders.size();
+    }
+
+    /**
+     * Stores the order and indexes it by customer email. An order saved again under another
+     * email is moved to the new customer; it is listed under the new one before it leaves the
+     * old one, so it is never missing from both. A newly created order has nothing to move.
+     * The order's customer is replaced by the registry's shared instance first.
+     */
+    private void put(Order order, boolean created) {
+        order.setCustomerInfo(customerRegistry.canonicalize(order.getCustomerInfo()));
+        Order previous = created ? null : orders.get(order.getId());
+        orders.put(order);
+        index(order, previous);
+    }
+
+    private void index(Order order, Order previous) {
+        String key = emailKey(order);
+        if (key != null) {
+            // Added inside compute so the set cannot be dropped as empty in between
+            idsByEmail.compute(key, (k, ids) -> {
+                ConcurrentSkipListSet<Long> result = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                result.add(order.getId());
+                return result;
+            });
+        }
+        String previousKey = previous == null ? null : emailKey(previous);
+        if (previousKey != null && !previousKey.equals(key)) {
+            unindex(previousKey, order.getId());
+        }
+    }
+
+    private void unindex(String key, long id) {
+        idsByEmail.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    // The failed save is what the caller hears about; a failure to log the discard rides along
+    private void discard(long id, RuntimeException failure) {
+        try {
+            eventPublisher.publishEvent(new OrderDiscardedEvent(id));
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private static String emailKey(Order order) {
+        CustomerInfo customerInfo = order.getCustomerInfo();
+        return customerInfo == null || customerInfo.getEmail() == null
+                ? null
+                : CustomerRegistry.normalizeEmail(customerInfo.getEmail());
+    }
+
+    /**
+     * Keeps the allocator ahead of an explicitly assigned id so it is never handed out twice.
+     *
+     * @return the first id this call took from the allocator; the ids from there up to
+     *         {@code id} are skipped or taken by the caller. Greater than {@code id} if none.
+     */
+    private long reserveId(long id) {
+        return nextId.getAndAccumulate(id + 1, Math::max);
+    }
+
+    /**
+     * Marks the ids from {@code firstId} to {@code lastId} as finished and moves the published id
+     * over them once every id before them is finished too. The range is recorded in the slot of
+     * its first id, then every caller moves the published id along the slots that follow it, so
+     * whichever save fills a gap also publishes the ranges that finished behind it. A slot holding
+     * a last id not above the published id is left over from an earlier round of the window.
+     * A save more than {@link #PUBLISH_WINDOW} ids ahead of the published id waits for it to move,
+     * so it never overwrites a slot that has not been published yet.
+     */
+    private void publish(long firstId, long lastId) {
+        if (firstId > lastId) {
+            return;
+        }
+        while (firstId - publishedId.get() > PUBLISH_WINDOW) {
+            Thread.yield();
+        }
+        finished.set((int) (firstId & PUBLISH_MASK), lastId);
+        long published;
+        long last;
+        while ((last = finished.get((int) (((published = publishedId.get()) + 1) & PUBLISH_MASK))) > published) {
+            publishedId.compareAndSet(published, last);
+        }
     }
 }
@@ -0,0 +1,51 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage layout behind {@link OrderRepository}. The repository allocates ids, publishes
+ * events and pages through orders; a store only keeps orders by their already assigned id.
+ * Layouts are selected with {@code webshop.orders.storage}, and every one must pass
+ * {@code OrderStoreContractTest}.
+ */
+public interface OrderStore {
+    void put(Order order);
+
+    /**
+     * Returns the order with the given id, or {@code null} if there is none.
+     */
+    Order get(long id);
+
+    /**
+     * Removes the order with the given id, if there is one.
+     */
+    void remove(long id);
+
+    long size();
+
+    /**
+     * Returns up to {@code limit} orders with an id greater than {@code afterId} and at most
+     * {@code maxId}, in id order. The default probes every id of the range, which is cheap for
+     * the dense ids the repository allocates; stores that can seek to the next id override it.
+     */
+    default List<Order> findPage(long afterId, long maxId, int limit) {
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        for (long id = Math.max(afterId, 0) + 1; id <= maxId && page.size() < limit; id++) {
+            Order order = get(id);
+            if (order != null) {
+                page.add(order);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Hands every stored order to {@code action}, in no particular order. The repository calls
+     * this once when it is created, to pick up the orders a persistent store already holds.
+     */
+    void forEach(Consumer<Order> action);
+}
@@ -1,48 +1,233 @@
 package com.example.webshop.repository;
 
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.model.Money;
 import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.util.LongMap;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class ProductRepository {
-    private final Map<Long, Product> products = new HashMap<>();
-    private long nextId = 1;
+    // Product metadata is immutable and read-mostly; the contended stock lives in a separate
+    // padded counter store, referenced by slot. Each counter packs a change version in the
+    // high 32 bits and the stock in the low 32 bits, so reservations are a single compare-and-set.
+    // The version wraps around after 2^32 - 1 changes; see StockLevel.isNewer.
+    private final Map<Long, Entry> products = new ConcurrentHashMap<>();
+    private final StockCounters stockCounters = new StockCounters();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductRepository() {
+    public ProductRepository(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
         initializeProducts();
     }
 
     private void initializeProducts() {
-        addProduct(new Product(null, "Laptop", "High-performance laptop for professionals", 12999.99, "https://example.com/laptop.jpg", 15));
-        addProduct(new Product(null, "Smartphone", "Latest smartphone with advanced features", 7999.99, "https://example.com/smartphone.jpg", 25));
-        addProduct(new Product(null, "Headphones", "Wireless noise-cancelling headphones", 1999.99, "https://example.com/headphones.jpg", 40));
-        addProduct(new Product(null, "Keyboard", "Mechanical keyboard for gaming and typing", 899.99, "https://example.com/keyboard.jpg", 30));
-        addProduct(new Product(null, "Mouse", "Ergonomic wireless mouse", 499.99, "https://example.com/mouse.jpg", 50));
-        addProduct(new Product(null, "Monitor", "27-inch 4K display monitor", 3499.99, "https://example.com/monitor.jpg", 20));
-        addProduct(new Product(null, "Webcam", "HD webcam for video conferencing", 799.99, "https://example.com/webcam.jpg", 35));
-        addProduct(new Product(null, "External SSD", "1TB portable external SSD", 1299.99, "https://example.com/ssd.jpg", 45));
+        addProduct(new Product(null, "Laptop", "High-performance laptop for professionals", Money.of("12999.99"), "https://example.com/laptop.jpg", 15));
+        addProduct(new Product(null, "Smartphone", "Latest smartphone with advanced features", Money.of("7999.99"), "https://example.com/smartphone.jpg", 25));
+        addProduct(new Product(null, "Headphones", "Wireless noise-cancelling headphones", Money.of("1999.99"), "https://example.com/headphones.jpg", 40));
+        addProduct(new Product(null, "Keyboard", "Mechanical keyboard for gaming and typing", Money.of("899.99"), "https://example.com/keyboard.jpg", 30));
+        addProduct(new Product(null, "Mouse", "Ergonomic wireless mouse", Money.of("499.99"), "https://example.com/mouse.jpg", 50));
+        addProduct(new Product(null, "Monitor", "27-inch 4K display monitor", Money.of("3499.99"), "https://example.com/monitor.jpg", 20));
+        addProduct(new Product(null, "Webcam", "HD webcam for video conferencing", Money.of("799.99"), "https://example.com/webcam.jpg", 35));
+        addProduct(new Product(null, "External SSD", "1TB portable external SSD", Money.of("1299.99"), "https://example.com/ssd.jpg", 45));
     }
 
     private void addProduct(Product product) {
-        product.setId(nextId++);
-        products.put(product.getId(), product);
+        Product stored = product.withId(nextId.getAndIncrement());
+        int slot = stockCounters.add(pack(0, stored.getStock()));
+        products.put(stored.getId(), new Entry(stored, slot));
     }
 
     public List<Product> findAll() {
-        return new ArrayList<>(products.values());
+        List<Product> result = new ArrayList<>(products.size());
+        for (Entry entry : products.values()) {
+            result.add(withCurrentStock(entry));
+        }
+        return result;
     }
 
     public Optional<Product> findById(Long id) {
-        return Optional.ofNullable(products.get(id));
+        Entry entry = products.get(id);
+        return entry == null ? Optional.empty() : Optional.of(withCurrentStock(entry));
+    }
+
+    /**
+     * Looks up several products at once. Ids without a product are left out of the result,
+     * and repeated ids are looked up once.
+     */
+    public LongMap<Product> findAllById(long... ids) {
+        LongMap<Product> result = new LongMap<>(ids.length);
+        for (long id : ids) {
+            if (!result.containsKey(id)) {
+                Entry entry = products.get(id);
+                if (entry != null) {
+                    result.put(id, withCurrentStock(entry));
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean existsById(Long id) {
+        return products.containsKey(id);
+    }
+
+    public int getStock(Long id) {
+        return stockOf(stockCounters.get(slotOf(id)));
+    }
+
+    public StockLevel getStockLevel(Long id) {
+        return toStockLevel(id, stockCounters.get(slotOf(id)));
+    }
+
+    public List<StockLevel> getStockLevels() {
+        List<StockLevel> result = new ArrayList<>(products.size());
+        products.forEach((id, entry) -> result.add(toStockLevel(id, stockCounters.get(entry.slot))));
+        return result;
     }
 
     public void updateStock(Long id, int newStock) {
-        Product product = products.get(id);
-        if (product == null) {
+        Entry entry = entryOf(id);
+        long current;
+        long next;
+        do {
+            current = stockCounters.get(entry.slot);
+            next = pack(nextVersion(current), newStock);
+        } while (!compareAndSet(entry, current, next));
+        publishStockChange(id, next);
+    }
+
+    /**
+     * Atomically decrements the stock of a product if at least {@code quantity} units are available.
+     *
+     * @return {@code true} if the units were reserved, {@code false} if there was not enough stock
+     */
+    public boolean tryReserveStock(Long id, int quantity) {
+        Entry entry = entryOf(id);
+        long current;
+        long next;
+        do {
+            current = stockCounters.get(entry.slot);
+            if (stockOf(current) < quantity) {
+                return false;
+            }
+            next = pack(nextVersion(current), stockOf(current) - quantity);
+        } while (!compareAndSet(entry, current, next));
+        publishStockChange(id, next);
+        return true;
+    }
+
+    /**
+     * Returns previously reserved units to the stock of a product.
+     */
+    public void releaseStock(Long id, int quantity) {
+        Entry entry = entryOf(id);
+        long current;
+        long next;
+        do {
+            current = stockCounters.get(entry.slot);
+            next = pack(nextVersion(current), stockOf(current) + quantity);
+        } while (!compareAndSet(entry, current, next));
+        publishStockChange(id, next);
+    }
+
+    /**
+     * Applies a stock level recovered from persistent storage, without publishing a change.
+     * Levels older than the one currently held are ignored, so recovered levels can be
+     * applied more than once and in any order.
+     */
+    public void restoreStock(StockLevel stockLevel) {
+        Entry entry = products.get(stockLevel.getProductId());
+        if (entry == null) {
+            return;
+        }
+        long next = pack(stockLevel.getVersion(), stockLevel.getStock());
+        long current;
+        do {
+            current = stockCounters.get(entry.slot);
+            if (!StockLevel.isNewer(stockLevel.getVersion(), versionOf(current))) {
+                return;
+            }
+        } while (!stockCounters.compareAndSet(entry.slot, current, next));
+    }
+
+    /**
+     * Returns how many stock updates of a product had to retry because another update won the race.
+     */
+    public long getStockContention(Long id) {
+        return entryOf(id).contention.sum();
+    }
+
+    public int count() {
+        return products.size();
+    }
+
+    private int slotOf(Long id) {
+        return entryOf(id).slot;
+    }
+
+    private Entry entryOf(Long id) {
+        Entry entry = products.get(id);
+        if (entry == null) {
             throw new IllegalArgumentException("Cannot update stock for non-existent product id: " + id);
         }
-        product.setStock(newStock);
+        return entry;
+    }
+
+    private boolean compareAndSet(Entry entry, long expected, long value) {
+        if (stockCounters.compareAndSet(entry.slot, expected, value)) {
+            return true;
+        }
+        entry.contention.increment();
+        return false;
+    }
+
+    private void publishStockChange(Long id, long state) {
+        eventPublisher.publishEvent(new StockChangedEvent(toStockLevel(id, state)));
+    }
+
+    private Product withCurrentStock(Entry entry) {
+        return entry.product.withStock(stockOf(stockCounters.get(entry.slot)));
+    }
+
+    private static StockLevel toStockLevel(Long id, long state) {
+        return new StockLevel(id, stockOf(state), versionOf(state));
+    }
+
+    private static long pack(long version, int stock) {
+        return (version << 32) | (stock & 0xFFFFFFFFL);
+    }
+
+    // Wraps around to 1, as 0 marks stock that has never changed
+    private static long nextVersion(long state) {
+        long version = versionOf(state);
+        return version == 0xFFFFFFFFL ? 1 : version + 1;
+    }
+
+    private static int stockOf(long state) {
+        return (int) state;
+    }
+
+    private static long versionOf(long state) {
+        return state >>> 32;
+    }
+
+    private static class Entry {
+        private final Product product;
+        private final int slot;
+        private final LongAdder contention = new LongAdder();
+
+        private Entry(Product product, int slot) {
+            this.product = product;
+            this.slot = slot;
+        }
     }
 }
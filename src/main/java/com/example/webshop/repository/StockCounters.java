@@ -0,0 +1,59 @@
+package com.example.webshop.repository;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Slot-indexed store of 64-bit stock counters, kept apart from product metadata. Each counter
+ * is padded to its own cache line so updates to one product never invalidate the line of
+ * another. Counters live in fixed-size chunks; growing the store only appends chunks, so
+ * existing counters never move and can be updated while the store grows.
+ */
+class StockCounters {
+    // 8 longs = 64 bytes, one cache line per counter
+    private static final int PADDING = 8;
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+    private int size;
+
+    /**
+     * Allocates a new counter with the given initial value.
+     *
+     * @return the slot of the new counter
+     */
+    int add(long initialValue) {
+        growLock.lock();
+        try {
+            int slot = size;
+            AtomicLongArray[] current = chunks;
+            if ((slot >> CHUNK_SHIFT) == current.length) {
+                AtomicLongArray[] grown = new AtomicLongArray[current.length + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                grown[current.length] = new AtomicLongArray(CHUNK_SLOTS * PADDING);
+                current = grown;
+            }
+            current[slot >> CHUNK_SHIFT].set(offset(slot), initialValue);
+            chunks = current;
+            size = slot + 1;
+            return slot;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    long get(int slot) {
+        return chunks[slot >> CHUNK_SHIFT].get(offset(slot));
+    }
+
+    boolean compareAndSet(int slot, long expected, long value) {
+        return chunks[slot >> CHUNK_SHIFT].compareAndSet(offset(slot), expected, value);
+    }
+
+    private static int offset(int slot) {
+        return (slot & CHUNK_MASK) * PADDING;
+    }
+}
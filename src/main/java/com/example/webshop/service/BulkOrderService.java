@@ -0,0 +1,226 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.InvalidOrderException;
+import com.example.webshop.exception.OrderNotDurableException;
+import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.exception.ReservationNotFoundException;
+import com.example.webshop.model.BulkOrderResult;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.persistence.PersistenceManager;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Places a stream of orders in chunks. Each chunk is validated and priced in parallel, then
+ * stock is reserved once per product for the chunk's combined demand. Orders whose products
+ * were all covered are stored straight away. When a product cannot cover the whole chunk, its
+ * orders give back their share and are placed one at a time, so each one still gets or loses
+ * its stock all or nothing. An order that cannot be stored gives its stock back. With
+ * persistence enabled, each chunk is synced to disk once before its results are reported. If
+ * that sync fails, the chunk's orders are still reported, with status 202 and an error saying
+ * they are not yet durable, and the import carries on.
+ *
+ * <p>Bulk orders bypass what the controller does around a single order: they are not
+ * admission-controlled and take no idempotency key. Only the orders placed one at a time are
+ * recorded in the checkout metrics.
+ */
+@Service
+public class BulkOrderService {
+    private static final Logger log = LoggerFactory.getLogger(BulkOrderService.class);
+
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final PersistenceManager persistence;
+    private final ForkJoinPool validationPool;
+    private final int chunkSize;
+
+    public BulkOrderService(OrderService orderService,
+                            ProductService productService,
+                            ObjectProvider<PersistenceManager> persistence,
+                            @Value("${webshop.orders.bulk.chunk-size:1000}") int chunkSize,
+                            @Value("${webshop.orders.bulk.parallelism:0}") int parallelism) {
+        this.orderService = orderService;
+        this.productService = productService;
+        this.persistence = persistence.getIfAvailable();
+        this.chunkSize = chunkSize;
+        this.validationPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Places every order from {@code requests}, passing one result per order to
+     * {@code results} in submission order. If the stream cannot be read any further, the
+     * orders read so far are placed and a final 400 result reports where reading stopped.
+     */
+    public void importOrders(Iterator<OrderRequest> requests, Consumer<BulkOrderResult> results) {
+        int nextIndex = 0;
+        boolean readable = true;
+        while (readable) {
+            List<OrderRequest> chunk = new ArrayList<>(chunkSize);
+            String readError = null;
+            try {
+                while (chunk.size() < chunkSize && requests.hasNext()) {
+                    chunk.add(requests.next());
+                }
+                readable = chunk.size() == chunkSize;
+            } catch (RuntimeException e) {
+                readError = e.getMessage();
+                readable = false;
+            }
+
+            if (!chunk.isEmpty()) {
+                for (BulkOrderResult result : placeChunk(chunk, nextIndex)) {
+                    results.accept(result);
+                }
+                nextIndex += chunk.size();
+            }
+            if (readError != null) {
+                results.accept(new BulkOrderResult(nextIndex, HttpStatus.BAD_REQUEST.value(), null,
+                        "Malformed order request: " + readError));
+            }
+        }
+    }
+
+    private BulkOrderResult[] placeChunk(List<OrderRequest> chunk, int firstIndex) {
+        int size = chunk.size();
+        BulkOrderResult[] results = new BulkOrderResult[size];
+        List<List<OrderItem>> pricedItems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pricedItems.add(null);
+        }
+
+        validationPool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> {
+            try {
+                orderService.validateOrderRequest(chunk.get(i));
+                if (chunk.get(i).getReservationId() == null) {
+                    pricedItems.set(i, orderService.priceOrder(chunk.get(i)));
+                }
+            } catch (RuntimeException e) {
+                results[i] = failure(firstIndex + i, e);
+            }
+        })).join();
+
+        Map<Long, Long> demand = new HashMap<>();
+        for (List<OrderItem> items : pricedItems) {
+            if (items != null) {
+                for (OrderItem item : items) {
+                    demand.merge(item.getProductId(), (long) item.getQuantity(), Long::sum);
+                }
+            }
+        }
+        Set<Long> covered = new HashSet<>();
+        for (Map.Entry<Long, Long> entry : demand.entrySet()) {
+            long quantity = entry.getValue();
+            if (quantity <= Integer.MAX_VALUE && productService.tryReserveStock(entry.getKey(), (int) quantity)) {
+                covered.add(entry.getKey());
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            List<OrderItem> items = pricedItems.get(i);
+            if (items != null) {
+                results[i] = place(chunk.get(i), items, covered, firstIndex + i);
+            } else if (results[i] == null) {
+                // Orders made from a reservation already hold their stock
+                results[i] = placeReserved(chunk.get(i), firstIndex + i);
+            }
+        }
+
+        if (persistence != null) {
+            try {
+                persistence.sync();
+            } catch (IOException e) {
+                log.error("Failed to sync bulk order chunk at {}; its orders are placed but not yet durable", firstIndex, e);
+                markNotDurable(results, e);
+            }
+        }
+        return results;
+    }
+
+    private static void markNotDurable(BulkOrderResult[] results, IOException cause) {
+        for (BulkOrderResult result : results) {
+            if (result.getOrder() != null) {
+                result.setStatus(HttpStatus.ACCEPTED.value());
+                result.setError(new OrderNotDurableException(result.getOrder(), cause).getMessage());
+            }
+        }
+    }
+
+    private BulkOrderResult place(OrderRequest request, List<OrderItem> items, Set<Long> covered, int index) {
+        boolean allCovered = true;
+        for (OrderItem item : items) {
+            allCovered &= covered.contains(item.getProductId());
+        }
+        try {
+            Order order;
+            if (allCovered) {
+                try {
+                    order = orderService.saveOrder(request, items);
+                } catch (RuntimeException e) {
+                    releaseCovered(items, covered);
+                    throw e;
+                }
+            } else {
+                releaseCovered(items, covered);
+                order = orderService.placeOrder(request);
+            }
+            return new BulkOrderResult(index, HttpStatus.CREATED.value(), order, null);
+        } catch (RuntimeException e) {
+            return failure(index, e);
+        }
+    }
+
+    private void releaseCovered(List<OrderItem> items, Set<Long> covered) {
+        for (OrderItem item : items) {
+            if (covered.contains(item.getProductId())) {
+                productService.releaseStock(item.getProductId(), item.getQuantity());
+            }
+        }
+    }
+
+    private BulkOrderResult placeReserved(OrderRequest request, int index) {
+        try {
+            return new BulkOrderResult(index, HttpStatus.CREATED.value(), orderService.placeOrder(request), null);
+        } catch (RuntimeException e) {
+            return failure(index, e);
+        }
+    }
+
+    private static BulkOrderResult failure(int index, RuntimeException e) {
+        HttpStatus status;
+        if (e instanceof ProductNotFoundException || e instanceof ReservationNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof InvalidOrderException || e instanceof InsufficientStockException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            log.error("Bulk order {} failed", index, e);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        return new BulkOrderResult(index, status.value(), null, e.getMessage());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdown();
+    }
+}
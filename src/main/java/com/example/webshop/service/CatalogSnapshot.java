@@ -0,0 +1,95 @@
+package com.example.webshop.service;
+
+import com.example.webshop.util.LongMap;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-serialized view of the product catalog. The JSON of the whole catalog and of
+ * each product is rendered once when the snapshot is built and then served as-is.
+ */
+public class CatalogSnapshot {
+    private final long version;
+    private final byte[] json;
+    private final String etag;
+    private final Map<Long, Entry> entries;
+
+    CatalogSnapshot(String generation, long version, byte[] json, Map<Long, Entry> entries) {
+        this.version = version;
+        this.json = json;
+        this.etag = "\"catalog-" + generation + "-" + version + "\"";
+        this.entries = entries;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns the entry for a product, or {@code null} if the catalog has no such product.
+     */
+    public Entry getEntry(Long productId) {
+        return entries.get(productId);
+    }
+
+    /**
+     * Returns a JSON array of the given products, in the order requested. Unknown ids are left
+     * out and repeated ids are included once.
+     */
+    public byte[] getJson(long[] productIds) {
+        LongMap<Entry> selected = new LongMap<>(productIds.length);
+        List<Entry> ordered = new ArrayList<>(productIds.length);
+        int length = 2;
+        for (long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && selected.put(productId, entry) == null) {
+                ordered.add(entry);
+                length += entry.json.length + 1;
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        out.write('[');
+        for (int i = 0; i < ordered.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(ordered.get(i).json);
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    Map<Long, Entry> getEntries() {
+        return entries;
+    }
+
+    public static class Entry {
+        private final byte[] json;
+        private final String etag;
+
+        Entry(byte[] json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
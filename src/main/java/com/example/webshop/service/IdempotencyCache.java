@@ -0,0 +1,199 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.IdempotencyKeyReusedException;
+import com.example.webshop.exception.OrderNotDurableException;
+import com.example.webshop.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of order submissions by {@code Idempotency-Key}, so a retried request
+ * gets the original order back instead of placing it again.
+ *
+ * <p>The first request for a key stores a pending future before it starts placing the order;
+ * duplicates arriving while it runs get that same future. Each key is bound to a hash of the
+ * request it was first used with, and a request reusing the key with a different hash is
+ * rejected rather than answered with someone else's order. Successful results are kept for the
+ * configured TTL. Failed attempts are forgotten, because a rejected order reserves no stock and
+ * the client may retry it; an order that was placed but could not be synced is kept like a
+ * success, since it exists and a retry would place it twice. Keys are evicted in insertion order, which is also expiry order since
+ * every entry lives for the same TTL. Keys whose submission is still running are never evicted,
+ * as a duplicate would then place the order again, so the number of tracked keys exceeds
+ * {@code max-entries} only by submissions still running.
+ */
+@Component
+public class IdempotencyCache {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public IdempotencyCache(MeterRegistry registry,
+                            @Value("${webshop.orders.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${webshop.orders.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this(registry, maxEntries, TimeUnit.SECONDS.toNanos(ttlSeconds), System::nanoTime);
+    }
+
+    IdempotencyCache(MeterRegistry registry, int maxEntries, long ttlNanos, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.hits = cacheRequests(registry, "hit");
+        this.misses = cacheRequests(registry, "miss");
+        this.evictions = Counter.builder("webshop.idempotency.evictions")
+                .description("Idempotency keys dropped to stay within the entry limit")
+                .register(registry);
+        Gauge.builder("webshop.idempotency.size", entries, ConcurrentHashMap::size)
+                .description("Idempotency keys currently remembered")
+                .register(registry);
+    }
+
+    private static Counter cacheRequests(MeterRegistry registry, String result) {
+        return Counter.builder("webshop.idempotency.requests")
+                .description("Order submissions carrying an Idempotency-Key")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Returns the remembered result for {@code key}, or runs {@code placeOrder} and remembers its
+     * result. Exceptions thrown by {@code placeOrder} complete the returned future exceptionally.
+     *
+     * @param requestHash hash of the request, compared with the one the key was first used with
+     * @throws IdempotencyKeyReusedException if the key is remembered for a different request
+     */
+    public Result execute(String key, byte[] requestHash, Supplier<CompletableFuture<Order>> placeOrder) {
+        long now = clock.getAsLong();
+        Entry entry = new Entry(key, requestHash, now + ttlNanos);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired(now)) {
+                if (!MessageDigest.isEqual(existing.requestHash, requestHash)) {
+                    throw new IdempotencyKeyReusedException(key);
+                }
+                hits.increment();
+                return new Result(existing.future, true);
+            }
+            if (entries.replace(key, existing, entry)) {
+                break;
+            }
+        }
+        misses.increment();
+        track(entry, now);
+
+        CompletableFuture<Order> placed;
+        try {
+            placed = placeOrder.get();
+        } catch (RuntimeException e) {
+            placed = CompletableFuture.failedFuture(e);
+        }
+        placed.whenComplete((order, failure) -> {
+            if (failure == null) {
+                entry.future.complete(order);
+            } else {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                if (!(cause instanceof OrderNotDurableException)) {
+                    entries.remove(key, entry);
+                }
+                entry.future.completeExceptionally(cause);
+            }
+        });
+        return new Result(entry.future, false);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void track(Entry entry, long now) {
+        insertionOrder.offer(entry);
+        int size = tracked.incrementAndGet();
+        // Running submissions are passed over; only a handful are running at any time, so the
+        // scan stays near the head of the queue
+        for (Iterator<Entry> it = insertionOrder.iterator(); it.hasNext(); ) {
+            Entry oldest = it.next();
+            if (!oldest.future.isDone()) {
+                continue;
+            }
+            boolean expired = oldest.isExpired(now);
+            if (!expired && size <= maxEntries) {
+                break;
+            }
+            if (!insertionOrder.remove(oldest)) {
+                size = tracked.get();
+                continue;
+            }
+            size = tracked.decrementAndGet();
+            if (entries.remove(oldest.key, oldest) && !expired) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * The order future for a submission, and whether it belongs to an earlier request.
+     */
+    public static final class Result {
+        private final CompletableFuture<Order> order;
+        private final boolean replayed;
+
+        Result(CompletableFuture<Order> order, boolean replayed) {
+            this.order = order;
+            this.replayed = replayed;
+        }
+
+        public CompletableFuture<Order> getOrder() {
+            return order;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final byte[] requestHash;
+        final long expiresAt;
+        final CompletableFuture<Order> future = new CompletableFuture<>();
+
+        Entry(String key, byte[] requestHash, long expiresAt) {
+            this.key = key;
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Pending entries never expire, so a slow submission keeps coalescing its duplicates.
+         */
+        boolean isExpired(long now) {
+            return future.isDone() && now - expiresAt >= 0;
+        }
+    }
+}
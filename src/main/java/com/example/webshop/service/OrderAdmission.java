@@ -0,0 +1,232 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.ProductOverloadedException;
+import com.example.webshop.exception.RateLimitExceededException;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of order placement, so one hot product cannot drag down the whole
+ * service. Every product of a request passes three checks, cheapest first, before any stock is
+ * touched. Unknown products are let through, so the order or reservation reports them as not
+ * found:
+ *
+ * <ol>
+ *   <li>Sold out: a flag kept current from stock events rejects the request as out of stock
+ *       without reading the repository.</li>
+ *   <li>Rate: a per-product token bucket refilling at {@code orders-per-second-per-product}
+ *       with room for a burst of {@code burst} orders. Over the rate the request is rejected
+ *       with 429 and a {@code Retry-After} for when a token is free again.</li>
+ *   <li>Concurrency: at most {@code max-concurrent-per-product} requests per product are in
+ *       flight at once. Beyond that the request is rejected with 503 straight away rather than
+ *       queued behind the others.</li>
+ * </ol>
+ *
+ * <p>The bucket is kept as a single theoretical arrival time per product (the generic cell
+ * rate algorithm), so taking a token is one compare-and-set with no refill thread.
+ */
+@Component
+public class OrderAdmission {
+    private static final Permit NO_PERMIT = new Permit(List.of());
+
+    private final ProductRepository productRepository;
+    private final ConcurrentHashMap<Long, Gate> gates = new ConcurrentHashMap<>();
+    private final int maxConcurrent;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public OrderAdmission(ProductRepository productRepository,
+                          @Value("${webshop.admission.max-concurrent-per-product:64}") int maxConcurrent,
+                          @Value("${webshop.admission.orders-per-second-per-product:1000}") double ordersPerSecond,
+                          @Value("${webshop.admission.burst:100}") int burst) {
+        this(productRepository, maxConcurrent, ordersPerSecond, burst, System::nanoTime);
+    }
+
+    /**
+     * @param ordersPerSecond orders admitted per product and second; 0 turns rate limiting off
+     */
+    OrderAdmission(ProductRepository productRepository, int maxConcurrent, double ordersPerSecond, int burst,
+                   LongSupplier clock) {
+        this.productRepository = productRepository;
+        this.maxConcurrent = maxConcurrent;
+        this.emissionIntervalNanos = ordersPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ordersPerSecond) : 0;
+        this.burstNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.clock = clock;
+    }
+
+    /**
+     * Admits a request for the given lines, or throws the reason it was turned away. The returned
+     * permit must be closed once the order has been placed or has failed.
+     *
+     * @throws InsufficientStockException  if a product is known to be sold out
+     * @throws RateLimitExceededException  if a product is ordered faster than its rate allows
+     * @throws ProductOverloadedException  if a product already has the maximum requests in flight
+     */
+    public Permit admit(List<OrderItemRequest> items) {
+        if (items == null || items.isEmpty()) {
+            return NO_PERMIT;
+        }
+        List<Gate> requested = new ArrayList<>(items.size());
+        for (OrderItemRequest item : items) {
+            if (item.getProductId() == null) {
+                continue;
+            }
+            Gate gate = gateFor(item.getProductId());
+            if (gate == null) {
+                continue;
+            }
+            if (gate.isSoldOut()) {
+                throw new InsufficientStockException(item.getProductId(), item.getQuantity(), 0);
+            }
+            if (!requested.contains(gate)) {
+                requested.add(gate);
+            }
+        }
+
+        long now = clock.getAsLong();
+        for (int i = 0; i < requested.size(); i++) {
+            long waitNanos = requested.get(i).tryTakeToken(now);
+            if (waitNanos > 0) {
+                for (int j = 0; j < i; j++) {
+                    requested.get(j).returnToken();
+                }
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+                throw new RateLimitExceededException(requested.get(i).productId, retryAfterSeconds);
+            }
+        }
+
+        for (int i = 0; i < requested.size(); i++) {
+            if (requested.get(i).inFlight.incrementAndGet() > maxConcurrent) {
+                for (int j = 0; j <= i; j++) {
+                    requested.get(j).inFlight.decrementAndGet();
+                }
+                for (Gate gate : requested) {
+                    gate.returnToken();
+                }
+                throw new ProductOverloadedException(requested.get(i).productId);
+            }
+        }
+        return new Permit(requested);
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        StockLevel stockLevel = event.getStockLevel();
+        gates.computeIfAbsent(stockLevel.getProductId(), Gate::new).applyStock(stockLevel);
+    }
+
+    /**
+     * Returns the gate of a product, or {@code null} if there is no such product.
+     */
+    private Gate gateFor(Long productId) {
+        Gate gate = gates.get(productId);
+        if (gate == null) {
+            if (!productRepository.existsById(productId)) {
+                return null;
+            }
+            // First request for the product: read its stock once, then follow the events
+            StockLevel stockLevel = productRepository.getStockLevel(productId);
+            gate = gates.computeIfAbsent(productId, Gate::new);
+            gate.applyStock(stockLevel);
+        }
+        return gate;
+    }
+
+    /**
+     * Admission for the products of one request, held while it is being placed.
+     */
+    public static final class Permit implements AutoCloseable {
+        private final List<Gate> gates;
+        private boolean closed;
+
+        private Permit(List<Gate> gates) {
+            this.gates = gates;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                for (Gate gate : gates) {
+                    gate.inFlight.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private final class Gate {
+        private final Long productId;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+        // Stock version << 1 | sold-out bit; 0 until the first level is known
+        private final AtomicLong stockState = new AtomicLong();
+
+        Gate(Long productId) {
+            this.productId = productId;
+        }
+
+        boolean isSoldOut() {
+            return (stockState.get() & 1) != 0;
+        }
+
+        /**
+         * Applies a stock level unless a newer one has been applied already.
+         */
+        void applyStock(StockLevel stockLevel) {
+            long next = stockLevel.getVersion() << 1 | (stockLevel.getStock() <= 0 ? 1 : 0);
+            long current;
+            do {
+                current = stockState.get();
+                if (current != 0 && !StockLevel.isNewer(stockLevel.getVersion(), current >>> 1)) {
+                    return;
+                }
+            } while (!stockState.compareAndSet(current, next));
+        }
+
+        /**
+         * Takes a token if one is free at {@code now}.
+         *
+         * @return 0 if a token was taken, otherwise how long until one is free
+         */
+        long tryTakeToken(long now) {
+            if (emissionIntervalNanos == 0) {
+                return 0;
+            }
+            long current;
+            long next;
+            do {
+                current = theoreticalArrival.get();
+                long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                next = start + emissionIntervalNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    return wait;
+                }
+            } while (!theoreticalArrival.compareAndSet(current, next));
+            return 0;
+        }
+
+        void returnToken() {
+            if (emissionIntervalNanos != 0) {
+                theoreticalArrival.addAndGet(-emissionIntervalNanos);
+            }
+        }
+    }
+}
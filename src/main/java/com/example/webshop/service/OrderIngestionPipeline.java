@@ -0,0 +1,191 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.OrderNotDurableException;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.persistence.PersistenceManager;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit front end for order creation. Requests are validated by the caller and
+ * queued; a single writer thread drains them in micro-batches, places each order and then makes
+ * the whole batch durable with one log sync before completing the callers' futures.
+ *
+ * <p>A batch takes whatever is queued when the writer gets to it, so batches grow on their own
+ * while the writer is busy syncing the previous one. With a {@code linger-ms} above zero the
+ * writer also waits up to that long for a batch to fill, capped at {@code max-batch-size}.
+ *
+ * <p>If the sync fails, the batch's orders are already placed, so their futures fail with an
+ * {@link OrderNotDurableException} carrying the order rather than a plain error. Once the writer
+ * stops, new submissions are rejected and anything still queued is failed.
+ */
+@Component
+@ConditionalOnProperty(name = "webshop.orders.batching.enabled", havingValue = "true")
+public class OrderIngestionPipeline {
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionPipeline.class);
+    private static final long IDLE_POLL_MS = 100;
+
+    private final OrderService orderService;
+    private final PersistenceManager persistence;
+    private final BlockingQueue<PendingOrder> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public OrderIngestionPipeline(OrderService orderService,
+                                  ObjectProvider<PersistenceManager> persistence,
+                                  @Value("${webshop.orders.batching.max-batch-size:256}") int maxBatchSize,
+                                  @Value("${webshop.orders.batching.linger-ms:0}") long lingerMs,
+                                  @Value("${webshop.orders.batching.queue-capacity:65536}") int queueCapacity) {
+        this.orderService = orderService;
+        this.persistence = persistence.getIfAvailable();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.writer = new Thread(this::run, "order-ingestion");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a request that has already passed {@link OrderService#validateOrderRequest} for the
+     * next batch. Throws an {@link IllegalStateException} once the pipeline has stopped; errors
+     * while placing the order complete the returned future exceptionally.
+     */
+    public CompletableFuture<Order> submit(OrderRequest orderRequest) {
+        PendingOrder pending = new PendingOrder(orderRequest);
+        try {
+            while (!queue.offer(pending, IDLE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                checkRunning();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+            return pending.future;
+        }
+        // The writer may have drained the queue for the last time between the offer and now
+        if (!running && queue.remove(pending)) {
+            checkRunning();
+        }
+        return pending.future;
+    }
+
+    private void checkRunning() {
+        if (!running) {
+            throw new IllegalStateException("Order ingestion pipeline is shut down");
+        }
+    }
+
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    if (collectBatch(batch)) {
+                        processBatch(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Order batch failed", e);
+                    for (PendingOrder pending : batch) {
+                        pending.future.completeExceptionally(e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            running = false;
+            IllegalStateException stopped = new IllegalStateException("Order ingestion pipeline is shut down");
+            for (PendingOrder pending; (pending = queue.poll()) != null; ) {
+                pending.future.completeExceptionally(stopped);
+            }
+        }
+    }
+
+    private boolean collectBatch(List<PendingOrder> batch) throws InterruptedException {
+        PendingOrder first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void processBatch(List<PendingOrder> batch) {
+        for (PendingOrder pending : batch) {
+            try {
+                pending.order = orderService.placeOrder(pending.request);
+            } catch (RuntimeException e) {
+                pending.failure = e;
+            }
+        }
+
+        IOException syncFailure = null;
+        if (persistence != null) {
+            try {
+                persistence.sync();
+            } catch (IOException e) {
+                log.error("Failed to sync order batch; its orders are placed but not yet durable", e);
+                syncFailure = e;
+            }
+        }
+
+        for (PendingOrder pending : batch) {
+            if (pending.failure != null) {
+                pending.future.completeExceptionally(pending.failure);
+            } else if (syncFailure != null) {
+                pending.future.completeExceptionally(new OrderNotDurableException(pending.order, syncFailure));
+            } else {
+                pending.future.complete(pending.order);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private static class PendingOrder {
+        private final OrderRequest request;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private Order order;
+        private RuntimeException failure;
+
+        private PendingOrder(OrderRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -1,66 +1,172 @@
 package com.example.webshop.service;
 
-import com.example.webshop.exception.InsufficientStockException;
 import com.example.webshop.exception.InvalidOrderException;
+import com.example.webshop.exception.InvalidRequestException;
 import com.example.webshop.exception.OrderNotFoundException;
 import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.metrics.CheckoutMetrics;
 import com.example.webshop.model.*;
 import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.util.LongMap;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class OrderService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final ProductService productService;
+    private final CheckoutMetrics checkoutMetrics;
+    private final ReservationService reservationService;
 
-    public OrderService(OrderRepository orderRepository, ProductService productService) {
+    public OrderService(OrderRepository orderRepository, ProductService productService,
+                        CheckoutMetrics checkoutMetrics, ReservationService reservationService) {
         this.orderRepository = orderRepository;
         this.productService = productService;
+        this.checkoutMetrics = checkoutMetrics;
+        this.reservationService = reservationService;
     }
 
     public Order createOrder(OrderRequest orderRequest) {
         validateOrderRequest(orderRequest);
+        return placeOrder(orderRequest);
+    }
+
+    /**
+     * Prices, reserves and stores an order that has already passed {@link #validateOrderRequest}.
+     * An order made from a reservation takes over the held stock instead of reserving it again.
+     */
+    public Order placeOrder(OrderRequest orderRequest) {
+        long started = System.nanoTime();
+        Order order = null;
+        try {
+            order = orderRequest.getReservationId() != null
+                    ? convertReservation(orderRequest)
+                    : priceReserveAndSave(orderRequest);
+            return order;
+        } finally {
+            int itemCount = order != null ? order.getItems().size()
+                    : orderRequest.getItems() != null ? orderRequest.getItems().size() : 0;
+            checkoutMetrics.recordCheckout(itemCount, started, order != null);
+        }
+    }
 
-        List<OrderItem> orderItems = new ArrayList<>();
-        double totalAmount = 0.0;
-
-        for (OrderItemRequest itemRequest : orderRequest.getItems()) {
-            Product product = productService.getProductById(itemRequest.getProductId());
-            
-            if (product.getStock() < itemRequest.getQuantity()) {
-                throw new InsufficientStockException(
-                    product.getId(), 
-                    itemRequest.getQuantity(), 
-                    product.getStock()
-                );
+    private Order convertReservation(OrderRequest orderRequest) {
+        List<OrderItemRequest> held = reservationService.claim(orderRequest.getReservationId());
+        try {
+            return saveOrder(orderRequest, priceItems(held));
+        } catch (RuntimeException e) {
+            reservationService.release(held);
+            throw e;
+        }
+    }
+
+    private Order priceReserveAndSave(OrderRequest orderRequest) {
+        List<OrderItem> orderItems = priceOrder(orderRequest);
+        reserveStock(orderItems);
+        try {
+            return saveOrder(orderRequest, orderItems);
+        } catch (RuntimeException e) {
+            releaseStock(orderItems, orderItems.size());
+            throw e;
+        }
+    }
+
+    /**
+     * Turns the requested lines into order items at the current product prices. All products
+     * of the cart are looked up in one pass, and lines repeating a product are merged into one
+     * item, in the order each product first appears.
+     */
+    List<OrderItem> priceOrder(OrderRequest orderRequest) {
+        return priceItems(orderRequest.getItems());
+    }
+
+    private List<OrderItem> priceItems(List<OrderItemRequest> lines) {
+        long[] productIds = new long[lines.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = lines.get(i).getProductId();
+        }
+        LongMap<Product> products = productService.findAllById(productIds);
+
+        LongMap<OrderItem> itemsByProduct = new LongMap<>(productIds.length);
+        List<OrderItem> orderItems = new ArrayList<>(productIds.length);
+        for (OrderItemRequest line : lines) {
+            long productId = line.getProductId();
+            OrderItem item = itemsByProduct.get(productId);
+            if (item != null) {
+                item.setQuantity(mergeQuantities(productId, item.getQuantity(), line.getQuantity()));
+                continue;
             }
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new ProductNotFoundException(productId);
+            }
+            item = new OrderItem(product.getId(), line.getQuantity(), product.getPrice());
+            itemsByProduct.put(productId, item);
+            orderItems.add(item);
+        }
+        return orderItems;
+    }
 
-            OrderItem orderItem = new OrderItem(
-                product.getId(),
-                itemRequest.getQuantity(),
-                product.getPrice()
-            );
-            orderItems.add(orderItem);
-            totalAmount += product.getPrice() * itemRequest.getQuantity();
+    private static int mergeQuantities(long productId, int quantity, int additional) {
+        try {
+            return Math.addExact(quantity, additional);
+        } catch (ArithmeticException e) {
+            throw new InvalidOrderException("Total quantity for product id " + productId + " is too large");
+        }
+    }
 
-            int newStock = product.getStock() - itemRequest.getQuantity();
-            productService.updateStock(product.getId(), newStock);
+    /**
+     * Stores an order whose stock has already been reserved by the caller.
+     */
+    Order saveOrder(OrderRequest orderRequest, List<OrderItem> orderItems) {
+        long totalMinorUnits = 0;
+        for (OrderItem item : orderItems) {
+            totalMinorUnits = Math.addExact(totalMinorUnits,
+                    Money.lineTotal(item.getPriceAtPurchase().getMinorUnits(), item.getQuantity()));
         }
 
         Order order = new Order();
         order.setCustomerInfo(orderRequest.getCustomerInfo());
         order.setItems(orderItems);
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmount(Money.ofMinor(totalMinorUnits));
         order.setOrderDate(LocalDateTime.now());
 
         return orderRepository.save(order);
     }
 
-    private void validateOrderRequest(OrderRequest orderRequest) {
+    /**
+     * Reserves stock for every item of an order, all or nothing. If any item cannot be
+     * reserved, the units already taken for the preceding items are put back before the
+     * exception is rethrown.
+     */
+    private void reserveStock(List<OrderItem> orderItems) {
+        int reserved = 0;
+        try {
+            for (OrderItem item : orderItems) {
+                productService.reserveStock(item.getProductId(), item.getQuantity());
+                reserved++;
+            }
+        } catch (RuntimeException e) {
+            releaseStock(orderItems, reserved);
+            throw e;
+        }
+    }
+
+    private void releaseStock(List<OrderItem> orderItems, int count) {
+        for (int i = 0; i < count; i++) {
+            OrderItem item = orderItems.get(i);
+            productService.releaseStock(item.getProductId(), item.getQuantity());
+        }
+    }
+
+    public void validateOrderRequest(OrderRequest orderRequest) {
         if (orderRequest == null) {
             throw new InvalidOrderException("Order request cannot be null");
         }
@@ -80,6 +186,13 @@ public class OrderService {
             throw new InvalidOrderException("Customer address is required");
         }
 
+        if (orderRequest.getReservationId() != null) {
+            if (orderRequest.getItems() != null && !orderRequest.getItems().isEmpty()) {
+                throw new InvalidOrderException("Items cannot be given together with a reservation");
+            }
+            return;
+        }
+
         if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
             throw new InvalidOrderException("Order must contain at least one item");
         }
@@ -98,6 +211,48 @@ public class OrderService {
         return orderRepository.findAll();
     }
 
+    /**
+     * Returns one page of orders after the given cursor. The cursor is the id of the last
+     * order of the previous page, or {@code null} for the first page. Orders keep arriving
+     * after the last one, so the next cursor is only {@code null} when the page is empty.
+     */
+    public OrderPage getOrders(Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Order> orders = orderRepository.findPage(cursor == null ? 0 : cursor, pageSize);
+        Long nextCursor = orders.isEmpty() ? null : orders.get(orders.size() - 1).getId();
+        return new OrderPage(orders, nextCursor);
+    }
+
+    /**
+     * Returns one page of a customer's orders, newest first. The cursor is the id of the last
+     * order of the previous page, or {@code null} for the first page.
+     */
+    public OrderPage getCustomerOrders(String email, Long cursor, int limit) {
+        if (email == null || email.isBlank()) {
+            throw new InvalidRequestException("Customer email is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Order> orders = orderRepository.findPageByCustomerEmail(email, cursor, pageSize);
+        Long nextCursor = orders.size() < pageSize ? null : orders.get(orders.size() - 1).getId();
+        return new OrderPage(orders, nextCursor);
+    }
+
+    /**
+     * Walks all orders after the given cursor page by page, handing each one to the consumer
+     * so callers can stream them without holding the full list in memory.
+     */
+    public void forEachOrder(Long cursor, Consumer<Order> consumer) {
+        long after = cursor == null ? 0 : cursor;
+        List<Order> page;
+        do {
+            page = orderRepository.findPage(after, MAX_PAGE_SIZE);
+            for (Order order : page) {
+                consumer.accept(order);
+                after = order.getId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+    }
+
     public Order getOrderById(Long id) {
         return orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(id));
@@ -0,0 +1,191 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the product catalog from an immutable {@link CatalogSnapshot}. Stock changes only mark
+ * the affected products as dirty; a rebuild re-renders just those products and splices them
+ * into a new snapshot, so unchanged products are never serialized again and reads of an
+ * unchanged catalog allocate nothing.
+ *
+ * <p>Snapshots are republished by a background publisher every half {@code max-staleness-ms},
+ * folding all changes since the last one into one new version. Readers only load the current
+ * snapshot, so browsing neither waits for nor pays for checkout traffic. Each snapshot is
+ * consistent per product: a product's JSON and ETag come from one stock level, and versions
+ * only move forward. A stock change is in the catalog within {@code max-staleness-ms} of
+ * happening, as long as the publisher thread gets CPU time; a request may briefly see an order
+ * succeed before the catalog shows the lower stock. With {@code max-staleness-ms=0} there is no
+ * publisher and the first read after a change rebuilds, so reads always see the latest stock.
+ */
+@Service
+public class ProductCatalog {
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final long maxStalenessMs;
+    // Only there when snapshots are published in the background, that is with a staleness bound
+    private final ScheduledExecutorService publisher;
+    // Catalog and stock versions restart with the process, so every ETag carries a random tag of
+    // this instance; without it a restart could reuse an ETag for different stock
+    private final String generation = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+
+    public ProductCatalog(ProductRepository productRepository, ObjectMapper objectMapper,
+                          @Value("${webshop.catalog.max-staleness-ms:100}") long maxStalenessMs) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.maxStalenessMs = maxStalenessMs;
+        if (maxStalenessMs > 0) {
+            publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "webshop-catalog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Half the bound, so a change made just after one run is still in time for the next
+            long intervalMicros = Math.max(1, TimeUnit.MILLISECONDS.toMicros(maxStalenessMs) / 2);
+            publisher.scheduleWithFixedDelay(this::publishQuietly, intervalMicros, intervalMicros,
+                    TimeUnit.MICROSECONDS);
+        } else {
+            publisher = null;
+        }
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot == null || (maxStalenessMs == 0 && !dirtyProducts.isEmpty())) {
+            rebuild();
+            snapshot = current.get();
+        }
+        return snapshot;
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        // A hot product is usually marked already; checking first avoids writing to the set
+        Long productId = event.getStockLevel().getProductId();
+        if (!dirtyProducts.contains(productId)) {
+            dirtyProducts.add(productId);
+        }
+    }
+
+    /**
+     * Publishes a new snapshot with every change made since the last one, if there are any.
+     */
+    void publish() {
+        if (current.get() != null && !dirtyProducts.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+    }
+
+    private void publishQuietly() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the changes stay marked for the next run
+            log.error("Failed to publish catalog snapshot", e);
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            CatalogSnapshot previous = current.get();
+            if (previous == null) {
+                // Built on first use rather than at startup, so stock restored from disk is included
+                buildInitial();
+                return;
+            }
+            if (dirtyProducts.isEmpty()) {
+                return;
+            }
+            Map<Long, CatalogSnapshot.Entry> entries = new LinkedHashMap<>(previous.getEntries());
+            // Clear each mark before reading the product, so a change racing with the rebuild
+            // marks it dirty again instead of being lost.
+            for (Iterator<Long> dirty = dirtyProducts.iterator(); dirty.hasNext(); ) {
+                Long productId = dirty.next();
+                dirty.remove();
+                if (entries.containsKey(productId)) {
+                    entries.put(productId, render(productId));
+                }
+            }
+            current.set(new CatalogSnapshot(generation, previous.getVersion() + 1, join(entries), entries));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void buildInitial() {
+        dirtyProducts.clear();
+        Map<Long, CatalogSnapshot.Entry> entries = new LinkedHashMap<>();
+        for (Product product : productRepository.findAll()) {
+            entries.put(product.getId(), render(product.getId()));
+        }
+        current.set(new CatalogSnapshot(generation, 1, join(entries), entries));
+    }
+
+    private CatalogSnapshot.Entry render(Long productId) {
+        StockLevel stockLevel = productRepository.getStockLevel(productId);
+        Product product = productRepository.findById(productId).orElseThrow();
+        Product view = product.withStock(stockLevel.getStock());
+        try {
+            return new CatalogSnapshot.Entry(objectMapper.writeValueAsBytes(view),
+                    "\"product-" + generation + "-" + productId + "-" + stockLevel.getVersion() + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] join(Map<Long, CatalogSnapshot.Entry> entries) {
+        int size = 2 + Math.max(0, entries.size() - 1);
+        for (CatalogSnapshot.Entry entry : entries.values()) {
+            size += entry.getJson().length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.write('[');
+        boolean first = true;
+        for (CatalogSnapshot.Entry entry : entries.values()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(entry.getJson());
+            first = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+}
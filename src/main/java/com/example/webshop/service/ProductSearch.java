@@ -0,0 +1,103 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.exception.InvalidRequestException;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.ProductSearchPage;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.util.LongMap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Product search backed by a {@link ProductSearchIndex}. The index is built on first use, so
+ * stock restored from disk at startup is included, and is kept current from stock events.
+ */
+@Service
+public class ProductSearch {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final BigDecimal MAX_PRICE_BOUND = Money.ofMinor(Long.MAX_VALUE).toBigDecimal();
+
+    private final ProductRepository productRepository;
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile ProductSearchIndex index;
+
+    public ProductSearch(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Returns one page of matching products in id order. The cursor is the id of the last
+     * product of the previous page, or {@code null} for the first page. Price bounds finer than
+     * a minor unit are rounded inwards.
+     *
+     * @throws InvalidRequestException if a price bound is beyond any amount {@link Money} holds
+     */
+    public ProductSearchPage search(String text, BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly,
+                                    Long cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ProductSearchIndex.Hits hits = index().search(text,
+                priceBound("minPrice", minPrice, RoundingMode.CEILING),
+                priceBound("maxPrice", maxPrice, RoundingMode.FLOOR),
+                inStockOnly, cursor == null ? Long.MIN_VALUE : cursor, pageSize);
+
+        LongMap<Product> found = productRepository.findAllById(hits.getProductIds());
+        List<Product> products = new ArrayList<>(hits.getProductIds().length);
+        for (long productId : hits.getProductIds()) {
+            Product product = found.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return new ProductSearchPage(products, hits.getTotal(), hits.getNextCursor());
+    }
+
+    // Checked before rounding, so a bound like 1E+999999999 is never expanded into its digits
+    private static Money priceBound(String name, BigDecimal amount, RoundingMode roundingMode) {
+        if (amount == null) {
+            return null;
+        }
+        if (amount.abs().compareTo(MAX_PRICE_BOUND) > 0) {
+            throw new InvalidRequestException(name + " is out of range");
+        }
+        return Money.rounded(amount, roundingMode);
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        ProductSearchIndex current = index;
+        if (current != null) {
+            current.updateStock(event.getStockLevel());
+        }
+    }
+
+    private ProductSearchIndex index() {
+        ProductSearchIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        buildLock.lock();
+        try {
+            if (index == null) {
+                index = new ProductSearchIndex(productRepository.findAll());
+                // Changes made while the index was being built were not delivered to it; the
+                // levels are versioned, so applying the current ones again is safe.
+                for (StockLevel stockLevel : productRepository.getStockLevels()) {
+                    index.updateStock(stockLevel);
+                }
+            }
+            return index;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+}
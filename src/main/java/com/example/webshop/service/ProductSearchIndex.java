@@ -0,0 +1,337 @@
+package com.example.webshop.service;
+
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory search index over product names and descriptions, with price and in-stock filters.
+ *
+ * <p>Products are numbered by ascending id, and every filter produces a bitset over those
+ * numbers, so a query is a few word-wise ANDs and results come out in id order. Terms map to
+ * sorted posting lists in a {@link TreeMap}, which makes every query word a prefix match over a
+ * range of terms. Prices are immutable and kept in one array sorted by price. Stock is the only
+ * part that changes: each product has a versioned state word, and the in-stock bitset follows
+ * it, so stock events applied out of order cannot leave a stale bit behind.
+ */
+public class ProductSearchIndex {
+    private final long[] productIds;
+    private final long[] prices;
+    private final int[] docsByPrice;
+    private final long[] sortedPrices;
+    private final NavigableMap<String, int[]> postings;
+    // Per product: stock version << 1 | in-stock bit
+    private final AtomicLongArray stockStates;
+    private final AtomicLongArray inStockWords;
+    private final int wordCount;
+
+    public ProductSearchIndex(List<Product> products) {
+        List<Product> byId = new ArrayList<>(products);
+        byId.sort(Comparator.comparing(Product::getId));
+        int size = byId.size();
+        this.productIds = new long[size];
+        this.prices = new long[size];
+        this.wordCount = (size + 63) >>> 6;
+        this.stockStates = new AtomicLongArray(size);
+        this.inStockWords = new AtomicLongArray(wordCount);
+
+        Map<String, PostingList> building = new HashMap<>();
+        for (int doc = 0; doc < size; doc++) {
+            Product product = byId.get(doc);
+            productIds[doc] = product.getId();
+            prices[doc] = product.getPrice().getMinorUnits();
+            applyStock(doc, 0, product.getStock());
+            Set<String> terms = tokenize(product.getName());
+            terms.addAll(tokenize(product.getDescription()));
+            for (String term : terms) {
+                building.computeIfAbsent(term, t -> new PostingList()).add(doc);
+            }
+        }
+        this.postings = new TreeMap<>();
+        building.forEach((term, docs) -> postings.put(term, docs.toArray()));
+
+        Integer[] order = new Integer[size];
+        for (int doc = 0; doc < size; doc++) {
+            order[doc] = doc;
+        }
+        Arrays.sort(order, Comparator.comparingLong(doc -> prices[doc]));
+        this.docsByPrice = new int[size];
+        this.sortedPrices = new long[size];
+        for (int i = 0; i < size; i++) {
+            docsByPrice[i] = order[i];
+            sortedPrices[i] = prices[order[i]];
+        }
+    }
+
+    /**
+     * Records a stock change. Levels older than the one already applied for the product are
+     * ignored, so changes may arrive in any order and more than once.
+     */
+    public void updateStock(StockLevel stockLevel) {
+        int doc = Arrays.binarySearch(productIds, stockLevel.getProductId());
+        if (doc >= 0) {
+            applyStock(doc, stockLevel.getVersion(), stockLevel.getStock());
+        }
+    }
+
+    /**
+     * Finds products matching every word of {@code text} as a prefix of some word in their name
+     * or description, priced within the given bounds, and optionally in stock. Returns at most
+     * {@code limit} ids greater than {@code afterId}, in ascending order, and the total number of
+     * matches.
+     */
+    public Hits search(String text, Money minPrice, Money maxPrice, boolean inStockOnly, long afterId, int limit) {
+        long[] matches = null;
+        for (String word : tokenize(text)) {
+            matches = and(matches, prefixMatches(word));
+        }
+        if (matches == null) {
+            matches = allDocs();
+        }
+        if (inStockOnly) {
+            for (int i = 0; i < wordCount; i++) {
+                matches[i] &= inStockWords.get(i);
+            }
+        }
+        if (minPrice != null || maxPrice != null) {
+            filterByPrice(matches, minPrice == null ? Long.MIN_VALUE : minPrice.getMinorUnits(),
+                    maxPrice == null ? Long.MAX_VALUE : maxPrice.getMinorUnits());
+        }
+
+        int total = 0;
+        for (long word : matches) {
+            total += Long.bitCount(word);
+        }
+        int start = firstDocAfter(afterId);
+        long[] page = new long[Math.min(limit, total)];
+        int found = 0;
+        int doc = nextSetBit(matches, start);
+        while (doc >= 0 && found < page.length) {
+            page[found++] = productIds[doc];
+            doc = nextSetBit(matches, doc + 1);
+        }
+        Long nextCursor = doc >= 0 && found > 0 ? page[found - 1] : null;
+        return new Hits(total, found == page.length ? page : Arrays.copyOf(page, found), nextCursor);
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    private long[] prefixMatches(String prefix) {
+        long[] bits = new long[wordCount];
+        for (int[] docs : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int doc : docs) {
+                bits[doc >>> 6] |= 1L << doc;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Narrows {@code matches} to a price range, either by intersecting with the range's bitset
+     * or by checking each match, whichever touches fewer products.
+     */
+    private void filterByPrice(long[] matches, long min, long max) {
+        int from = lowerBound(sortedPrices, min);
+        int to = upperBound(sortedPrices, max);
+        if (from >= to) {
+            Arrays.fill(matches, 0);
+            return;
+        }
+        int candidates = 0;
+        for (long word : matches) {
+            candidates += Long.bitCount(word);
+        }
+        if (to - from < candidates) {
+            long[] inRange = new long[wordCount];
+            for (int i = from; i < to; i++) {
+                int doc = docsByPrice[i];
+                inRange[doc >>> 6] |= 1L << doc;
+            }
+            and(matches, inRange);
+        } else {
+            for (int doc = nextSetBit(matches, 0); doc >= 0; doc = nextSetBit(matches, doc + 1)) {
+                if (prices[doc] < min || prices[doc] > max) {
+                    matches[doc >>> 6] &= ~(1L << doc);
+                }
+            }
+        }
+    }
+
+    private void applyStock(int doc, long version, int stock) {
+        long next = version << 1 | (stock > 0 ? 1 : 0);
+        long current;
+        do {
+            current = stockStates.get(doc);
+            if (current != 0 && !StockLevel.isNewer(version, current >>> 1)) {
+                return;
+            }
+        } while (!stockStates.compareAndSet(doc, current, next));
+
+        // Make the bit follow the state; a later update that races with this one repeats the
+        // same loop, so whichever finishes last leaves the bit matching the newest state.
+        boolean inStock;
+        do {
+            inStock = (stockStates.get(doc) & 1) != 0;
+            setBit(inStockWords, doc, inStock);
+        } while (((stockStates.get(doc) & 1) != 0) != inStock);
+    }
+
+    private static void setBit(AtomicLongArray words, int doc, boolean value) {
+        int index = doc >>> 6;
+        long mask = 1L << doc;
+        long current;
+        long next;
+        do {
+            current = words.get(index);
+            next = value ? current | mask : current & ~mask;
+        } while (current != next && !words.compareAndSet(index, current, next));
+    }
+
+    private long[] allDocs() {
+        long[] bits = new long[wordCount];
+        Arrays.fill(bits, -1L);
+        int tail = productIds.length & 63;
+        if (tail != 0) {
+            bits[wordCount - 1] = (1L << tail) - 1;
+        }
+        return bits;
+    }
+
+    private int firstDocAfter(long productId) {
+        int index = Arrays.binarySearch(productIds, productId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static long[] and(long[] target, long[] other) {
+        if (target == null) {
+            return other;
+        }
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+        return target;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int index = from >>> 6;
+        if (index >= bits.length) {
+            return -1;
+        }
+        long word = bits[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == bits.length) {
+                return -1;
+            }
+            word = bits[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Splits text into distinct lower-case words of letters and digits, in order of appearance.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(docs, size);
+        }
+    }
+
+    /**
+     * One page of matching product ids, with the total number of matches.
+     */
+    public static final class Hits {
+        private final int total;
+        private final long[] productIds;
+        private final Long nextCursor;
+
+        Hits(int total, long[] productIds, Long nextCursor) {
+            this.total = total;
+            this.productIds = productIds;
+            this.nextCursor = nextCursor;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public long[] getProductIds() {
+            return productIds;
+        }
+
+        public Long getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
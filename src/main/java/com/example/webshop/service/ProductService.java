@@ -1,8 +1,10 @@
 package com.example.webshop.service;
 
+import com.example.webshop.exception.InsufficientStockException;
 import com.example.webshop.exception.ProductNotFoundException;
 import com.example.webshop.model.Product;
 import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.util.LongMap;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,7 +26,31 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException(id));
     }
 
+    /**
+     * Returns the products with the given ids, keyed by id. Unknown ids are left out.
+     */
+    public LongMap<Product> findAllById(long... ids) {
+        return productRepository.findAllById(ids);
+    }
+
     public void updateStock(Long productId, int newStock) {
         productRepository.updateStock(productId, newStock);
     }
+
+    public void reserveStock(Long productId, int quantity) {
+        if (!productRepository.tryReserveStock(productId, quantity)) {
+            throw new InsufficientStockException(productId, quantity, productRepository.getStock(productId));
+        }
+    }
+
+    /**
+     * Reserves stock if enough is available, without throwing when it is not.
+     */
+    public boolean tryReserveStock(Long productId, int quantity) {
+        return productRepository.tryReserveStock(productId, quantity);
+    }
+
+    public void releaseStock(Long productId, int quantity) {
+        productRepository.releaseStock(productId, quantity);
+    }
 }
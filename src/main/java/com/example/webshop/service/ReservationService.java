@@ -0,0 +1,359 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.ReservationCreatedEvent;
+import com.example.webshop.event.ReservationEndedEvent;
+import com.example.webshop.exception.InvalidOrderException;
+import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.exception.ReservationNotFoundException;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.ReservationRequest;
+import com.example.webshop.util.LongMap;
+import com.example.webshop.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds stock for a cart for a limited time, so a shopper learns at checkout start rather than
+ * at the last step whether the items are still available. Creating a reservation takes the
+ * stock straight away, all or nothing; the hold then either becomes an order through
+ * {@link #claim}, is released by the shopper, or expires and gives its stock back.
+ *
+ * <p>Expiry runs on a {@link TimingWheel} advanced by a single ticker thread, so scheduling and
+ * expiring a hold costs the same however many are outstanding. Whoever removes a hold from the
+ * map owns it, which makes claim, release and expiry mutually exclusive without further locking.
+ *
+ * <p>Creating and ending a hold are published as events, so with persistence enabled holds are
+ * logged along with the stock they took and are {@link #restore restored} after a restart, still
+ * expiring at their original time. A hold's end is published before its stock is given back, so
+ * a crash in between leaves those units taken rather than returning them twice. If publishing
+ * the end fails, the hold goes back into the map with its original deadline, so its stock is
+ * still given back by a later release, claim or expiry.
+ */
+@Service
+public class ReservationService {
+    private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+
+    private final ProductService productService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+    private final TimingWheel<Hold> wheel;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final long holdNanos;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService ticker;
+
+    @Autowired
+    public ReservationService(ProductService productService, ApplicationEventPublisher eventPublisher,
+                              @Value("${webshop.reservations.hold-seconds:600}") long holdSeconds,
+                              @Value("${webshop.reservations.tick-ms:100}") long tickMs) {
+        this(productService, eventPublisher, TimeUnit.SECONDS.toNanos(holdSeconds), TimeUnit.MILLISECONDS.toNanos(tickMs),
+                System::nanoTime);
+        ticker.scheduleWithFixedDelay(this::expireQuietly, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a service whose holds only expire when {@link #expireDue} is called.
+     */
+    ReservationService(ProductService productService, ApplicationEventPublisher eventPublisher, long holdNanos,
+                       long tickNanos, LongSupplier clock) {
+        this.productService = productService;
+        this.eventPublisher = eventPublisher;
+        this.holdNanos = holdNanos;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(tickNanos, clock.getAsLong());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webshop-reservations");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reserves stock for every line of the request and returns the hold. Lines repeating a
+     * product are merged. If any product lacks stock or does not exist, nothing is held.
+     */
+    public Reservation create(ReservationRequest request) {
+        List<OrderItemRequest> items = mergeLines(request);
+        requireProducts(items);
+        int reserved = 0;
+        try {
+            for (OrderItemRequest item : items) {
+                productService.reserveStock(item.getProductId(), item.getQuantity());
+                reserved++;
+            }
+        } catch (RuntimeException e) {
+            release(items.subList(0, reserved));
+            throw e;
+        }
+
+        long now = clock.getAsLong();
+        Hold hold = new Hold(UUID.randomUUID().toString(), items, now + holdNanos,
+                LocalDateTime.now().plusNanos(holdNanos));
+        Reservation reservation = hold.toReservation();
+        // In the map before it is logged, so a snapshot taken in between still covers it. Its id
+        // is not known outside yet, so nothing can end it before the creation is logged.
+        holds.put(hold.id, hold);
+        try {
+            eventPublisher.publishEvent(new ReservationCreatedEvent(reservation));
+        } catch (RuntimeException e) {
+            holds.remove(hold.id);
+            release(items);
+            throw e;
+        }
+        schedule(hold);
+        return reservation;
+    }
+
+    /**
+     * Puts back holds recovered from persistent storage, without taking their stock again or
+     * publishing them as new. Holds whose {@code expiresAt} has passed expire on the next tick.
+     */
+    public void restore(List<Reservation> reservations) {
+        LocalDateTime wallClock = LocalDateTime.now();
+        long now = clock.getAsLong();
+        for (Reservation reservation : reservations) {
+            // Never longer than a new hold, in case the wall clock was moved back meanwhile
+            long remainingNanos = Math.max(0, Math.min(holdNanos,
+                    Duration.between(wallClock, reservation.getExpiresAt()).toNanos()));
+            Hold hold = new Hold(reservation.getId(), List.copyOf(reservation.getItems()), now + remainingNanos,
+                    reservation.getExpiresAt());
+            holds.put(hold.id, hold);
+            schedule(hold);
+        }
+    }
+
+    /**
+     * Returns every outstanding hold, for writing a snapshot.
+     */
+    public List<Reservation> getReservations() {
+        List<Reservation> reservations = new ArrayList<>(holds.size());
+        for (Hold hold : holds.values()) {
+            reservations.add(hold.toReservation());
+        }
+        return reservations;
+    }
+
+    public Reservation get(String id) {
+        Hold hold = holds.get(id);
+        if (hold == null || hold.isExpired(clock.getAsLong())) {
+            throw new ReservationNotFoundException(id);
+        }
+        return hold.toReservation();
+    }
+
+    /**
+     * Cancels a hold and gives its stock back.
+     */
+    public void release(String id) {
+        Hold hold = take(id);
+        release(hold.items);
+    }
+
+    /**
+     * Takes over a hold for an order. The stock stays reserved and now belongs to the caller,
+     * who must give it back with {@link #release(List)} if the order is not placed.
+     *
+     * @return the held items, one per product
+     */
+    public List<OrderItemRequest> claim(String id) {
+        return take(id).items;
+    }
+
+    /**
+     * Gives back stock taken for the given items.
+     */
+    public void release(List<OrderItemRequest> items) {
+        for (OrderItemRequest item : items) {
+            productService.releaseStock(item.getProductId(), item.getQuantity());
+        }
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    /**
+     * Expires every hold whose deadline has passed, returning its stock.
+     */
+    void expireDue() {
+        List<Hold> expired = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(clock.getAsLong(), expired::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        for (Hold hold : expired) {
+            if (holds.remove(hold.id, hold)) {
+                try {
+                    publishEnd(hold);
+                } catch (RuntimeException e) {
+                    log.error("Failed to expire reservation {}; retrying on the next tick", hold.id, e);
+                    continue;
+                }
+                release(hold.items);
+            }
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            expireDue();
+        } catch (RuntimeException e) {
+            log.error("Failed to expire reservations", e);
+        }
+    }
+
+    // Scheduled after publishing the hold: if it is claimed in between, the timeout fires later
+    // for a hold no longer in the map and does nothing.
+    private void schedule(Hold hold) {
+        wheelLock.lock();
+        try {
+            hold.timeout = wheel.schedule(hold, hold.deadlineNanos);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Publishes the end of a hold the caller has removed from the map. If that fails, the hold is
+     * put back and scheduled again before the exception is rethrown; a hold already past its
+     * deadline then expires on the next tick.
+     */
+    private void publishEnd(Hold hold) {
+        try {
+            eventPublisher.publishEvent(new ReservationEndedEvent(hold.id));
+        } catch (RuntimeException e) {
+            holds.put(hold.id, hold);
+            schedule(hold);
+            throw e;
+        }
+    }
+
+    private void requireProducts(List<OrderItemRequest> items) {
+        long[] productIds = new long[items.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = items.get(i).getProductId();
+        }
+        LongMap<Product> products = productService.findAllById(productIds);
+        for (long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ProductNotFoundException(productId);
+            }
+        }
+    }
+
+    /**
+     * Removes a live hold from the map, making the caller its only owner, and cancels its timeout.
+     * A hold past its deadline that the ticker has not reached yet is expired here instead.
+     */
+    private Hold take(String id) {
+        Hold hold = holds.remove(id);
+        if (hold == null) {
+            throw new ReservationNotFoundException(id);
+        }
+        wheelLock.lock();
+        try {
+            if (hold.timeout != null) {
+                wheel.cancel(hold.timeout);
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+        publishEnd(hold);
+        if (hold.isExpired(clock.getAsLong())) {
+            release(hold.items);
+            throw new ReservationNotFoundException(id);
+        }
+        return hold;
+    }
+
+    public void validateReservationRequest(ReservationRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new InvalidOrderException("Reservation must contain at least one item");
+        }
+        for (OrderItemRequest line : request.getItems()) {
+            if (line.getProductId() == null) {
+                throw new InvalidOrderException("Product ID is required for all items");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new InvalidOrderException("Quantity must be greater than 0");
+            }
+        }
+    }
+
+    private List<OrderItemRequest> mergeLines(ReservationRequest request) {
+        validateReservationRequest(request);
+        List<OrderItemRequest> lines = request.getItems();
+        LongMap<OrderItemRequest> byProduct = new LongMap<>(lines.size());
+        List<OrderItemRequest> items = new ArrayList<>(lines.size());
+        for (OrderItemRequest line : lines) {
+            OrderItemRequest item = byProduct.get(line.getProductId());
+            if (item == null) {
+                item = new OrderItemRequest(line.getProductId(), line.getQuantity());
+                byProduct.put(line.getProductId(), item);
+                items.add(item);
+            } else {
+                try {
+                    item.setQuantity(Math.addExact(item.getQuantity(), line.getQuantity()));
+                } catch (ArithmeticException e) {
+                    throw new InvalidOrderException(
+                            "Total quantity for product id " + line.getProductId() + " is too large");
+                }
+            }
+        }
+        return List.copyOf(items);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private static final class Hold {
+        private final String id;
+        private final List<OrderItemRequest> items;
+        private final long deadlineNanos;
+        private final LocalDateTime expiresAt;
+        // Guarded by wheelLock
+        private TimingWheel.Timeout<Hold> timeout;
+
+        Hold(String id, List<OrderItemRequest> items, long deadlineNanos, LocalDateTime expiresAt) {
+            this.id = id;
+            this.items = items;
+            this.deadlineNanos = deadlineNanos;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - deadlineNanos >= 0;
+        }
+
+        Reservation toReservation() {
+            List<OrderItemRequest> copy = new ArrayList<>(items.size());
+            for (OrderItemRequest item : items) {
+                copy.add(new OrderItemRequest(item.getProductId(), item.getQuantity()));
+            }
+            return new Reservation(id, copy, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.OrderCreatedEvent;
+import com.example.webshop.model.MinuteSales;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.ProductSales;
+import com.example.webshop.model.SalesSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Running sales aggregates, updated as each order is created, so reports never scan orders.
+ *
+ * <p>Totals since startup are kept overall and per product. Recent sales are kept in a ring of
+ * one bucket per minute covering {@code window-minutes}; a bucket is replaced by a fresh one
+ * when the ring comes round to it again. All counters are {@link LongAdder}s, so concurrent
+ * checkouts of the same product do not contend. A query reads at most one bucket per minute
+ * asked for, whatever the number of orders, plus the products sold in those minutes for top
+ * sellers. Orders are placed in the minute of their order date.
+ *
+ * <p>Aggregates live in memory and start empty: orders recovered from disk at startup are not
+ * counted again.
+ */
+@Service
+public class SalesAnalytics {
+    public static final int DEFAULT_TOP_PRODUCTS = 10;
+    public static final int MAX_TOP_PRODUCTS = 100;
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final int windowMinutes;
+    private final AtomicReferenceArray<MinuteBucket> buckets;
+    private final Counters totals = new Counters();
+    private final ConcurrentHashMap<Long, Counters> productTotals = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final ZoneId zone;
+    private final long startMillis;
+
+    @Autowired
+    public SalesAnalytics(@Value("${webshop.analytics.window-minutes:60}") int windowMinutes) {
+        this(windowMinutes, System::currentTimeMillis, ZoneId.systemDefault());
+    }
+
+    SalesAnalytics(int windowMinutes, LongSupplier clock, ZoneId zone) {
+        if (windowMinutes < 1) {
+            throw new IllegalArgumentException("Analytics window must be at least one minute: " + windowMinutes);
+        }
+        this.windowMinutes = windowMinutes;
+        this.buckets = new AtomicReferenceArray<>(windowMinutes);
+        this.clock = clock;
+        this.zone = zone;
+        this.startMillis = clock.getAsLong();
+    }
+
+    @EventListener
+    public void onOrderCreated(OrderCreatedEvent event) {
+        record(event.getOrder());
+    }
+
+    void record(Order order) {
+        long minute = order.getOrderDate() == null
+                ? Math.floorDiv(clock.getAsLong(), MILLIS_PER_MINUTE)
+                : Math.floorDiv(order.getOrderDate().atZone(zone).toEpochSecond(), 60);
+        MinuteBucket bucket = bucketFor(minute);
+        long units = 0;
+        long revenue = 0;
+        for (OrderItem item : order.getItems()) {
+            long lineRevenue = Money.lineTotal(item.getPriceAtPurchase().getMinorUnits(), item.getQuantity());
+            units += item.getQuantity();
+            revenue += lineRevenue;
+            productTotals.computeIfAbsent(item.getProductId(), id -> new Counters())
+                    .add(item.getQuantity(), lineRevenue);
+            if (bucket != null) {
+                bucket.products.computeIfAbsent(item.getProductId(), id -> new Counters())
+                        .add(item.getQuantity(), lineRevenue);
+            }
+        }
+        totals.add(units, revenue);
+        if (bucket != null) {
+            bucket.add(units, revenue);
+        }
+    }
+
+    /**
+     * Sales over the last {@code minutes} minutes including the current one, or since startup
+     * when {@code minutes} is {@code null}.
+     */
+    public SalesSummary getSummary(Integer minutes) {
+        long now = clock.getAsLong();
+        if (minutes == null) {
+            long elapsedMinutes = Math.max(1, (now - startMillis + MILLIS_PER_MINUTE - 1) / MILLIS_PER_MINUTE);
+            long orders = totals.orders.sum();
+            return new SalesSummary(toDateTime(startMillis), orders, totals.units.sum(),
+                    Money.ofMinor(totals.revenue.sum()), (double) orders / elapsedMinutes);
+        }
+        int span = window(minutes);
+        long first = currentMinute(now) - span + 1;
+        long orders = 0;
+        long units = 0;
+        long revenue = 0;
+        for (long minute = first; minute < first + span; minute++) {
+            MinuteBucket bucket = bucketAt(minute);
+            if (bucket != null) {
+                orders += bucket.orders.sum();
+                units += bucket.units.sum();
+                revenue += bucket.revenue.sum();
+            }
+        }
+        return new SalesSummary(toDateTime(first * MILLIS_PER_MINUTE), orders, units, Money.ofMinor(revenue),
+                (double) orders / span);
+    }
+
+    /**
+     * Sales in each of the last {@code minutes} minutes, oldest first, including minutes
+     * without any.
+     */
+    public List<MinuteSales> getSalesPerMinute(int minutes) {
+        int span = window(minutes);
+        long first = currentMinute(clock.getAsLong()) - span + 1;
+        List<MinuteSales> result = new ArrayList<>(span);
+        for (long minute = first; minute < first + span; minute++) {
+            MinuteBucket bucket = bucketAt(minute);
+            result.add(bucket == null
+                    ? new MinuteSales(toDateTime(minute * MILLIS_PER_MINUTE), 0, 0, Money.ZERO)
+                    : new MinuteSales(toDateTime(minute * MILLIS_PER_MINUTE), bucket.orders.sum(),
+                    bucket.units.sum(), Money.ofMinor(bucket.revenue.sum())));
+        }
+        return result;
+    }
+
+    /**
+     * The best-selling products by revenue, or by units when {@code byUnits} is set, over the
+     * last {@code minutes} minutes or since startup when {@code minutes} is {@code null}.
+     */
+    public List<ProductSales> getTopProducts(Integer minutes, int limit, boolean byUnits) {
+        Map<Long, long[]> sales = new HashMap<>();
+        if (minutes == null) {
+            productTotals.forEach((productId, counters) -> counters.addTo(sales, productId));
+        } else {
+            int span = window(minutes);
+            long first = currentMinute(clock.getAsLong()) - span + 1;
+            for (long minute = first; minute < first + span; minute++) {
+                MinuteBucket bucket = bucketAt(minute);
+                if (bucket != null) {
+                    bucket.products.forEach((productId, counters) -> counters.addTo(sales, productId));
+                }
+            }
+        }
+
+        int top = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        int key = byUnits ? 1 : 2;
+        Comparator<Map.Entry<Long, long[]>> ranking = Comparator
+                .<Map.Entry<Long, long[]>>comparingLong(entry -> entry.getValue()[key])
+                .thenComparing(Map.Entry::getKey, Comparator.reverseOrder());
+        PriorityQueue<Map.Entry<Long, long[]>> best = new PriorityQueue<>(top + 1, ranking);
+        for (Map.Entry<Long, long[]> entry : sales.entrySet()) {
+            best.add(entry);
+            if (best.size() > top) {
+                best.poll();
+            }
+        }
+        List<ProductSales> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Map.Entry<Long, long[]> entry = best.poll();
+            long[] counts = entry.getValue();
+            result.add(0, new ProductSales(entry.getKey(), counts[0], counts[1], Money.ofMinor(counts[2])));
+        }
+        return result;
+    }
+
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    private int window(int minutes) {
+        return Math.max(1, Math.min(minutes, windowMinutes));
+    }
+
+    private static long currentMinute(long nowMillis) {
+        return Math.floorDiv(nowMillis, MILLIS_PER_MINUTE);
+    }
+
+    private LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    /**
+     * The bucket for {@code minute}, replacing the older bucket in its slot if needed, or
+     * {@code null} if the slot already holds a later minute.
+     */
+    private MinuteBucket bucketFor(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) windowMinutes);
+        while (true) {
+            MinuteBucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.minute >= minute) {
+                return bucket.minute == minute ? bucket : null;
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private MinuteBucket bucketAt(long minute) {
+        MinuteBucket bucket = buckets.get((int) Math.floorMod(minute, (long) windowMinutes));
+        return bucket != null && bucket.minute == minute ? bucket : null;
+    }
+
+    private static class Counters {
+        final LongAdder orders = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder revenue = new LongAdder();
+
+        void add(long unitCount, long revenueMinorUnits) {
+            orders.increment();
+            units.add(unitCount);
+            revenue.add(revenueMinorUnits);
+        }
+
+        void addTo(Map<Long, long[]> sales, Long productId) {
+            long[] counts = sales.computeIfAbsent(productId, id -> new long[3]);
+            counts[0] += orders.sum();
+            counts[1] += units.sum();
+            counts[2] += revenue.sum();
+        }
+    }
+
+    private static final class MinuteBucket extends Counters {
+        final long minute;
+        final ConcurrentHashMap<Long, Counters> products = new ConcurrentHashMap<>();
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.webshop.util;
+
+/**
+ * A small open-addressing hash map from primitive {@code long} keys to values, for lookups
+ * that would otherwise box every key. Not thread-safe; meant to be built and read by one
+ * thread, such as the products of a single cart.
+ */
+public class LongMap<V> {
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public LongMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a map that holds {@code expectedSize} entries without resizing.
+     */
+    public LongMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1);
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value if there was one.
+     * Values must not be {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongMap does not hold null values");
+        }
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(key).append('=').append(value);
+        });
+        return result.append('}').toString();
+    }
+
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(long key, V value);
+    }
+}
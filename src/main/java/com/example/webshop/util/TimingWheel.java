@@ -0,0 +1,169 @@
+package com.example.webshop.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts. Time advances in fixed ticks, and
+ * each of the four levels has 64 slots, each slot covering 64 times the span of a slot one
+ * level down. A timeout goes straight into the slot of its deadline at the lowest level that can
+ * reach it. When a level comes round to the next slot, the timeouts in it move down into the
+ * finer level, and they fire when the lowest level reaches them. Scheduling, cancelling and
+ * firing a timeout are all constant time however many timeouts are pending.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Timeout<T>[][] slots;
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickNanos, long startNanos) {
+        this.tickNanos = tickNanos;
+        this.startNanos = startNanos;
+        this.slots = newSlots();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = Timeout.sentinel();
+            }
+        }
+    }
+
+    // Java has no generic array creation; every element is a Timeout<T> set by the constructor
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Timeout<T>[][] newSlots() {
+        return new Timeout[LEVELS][SLOTS];
+    }
+
+    /**
+     * Schedules {@code value} to fire once the wheel has been advanced to {@code deadlineNanos},
+     * rounded up to the next tick.
+     *
+     * @throws IllegalArgumentException if the deadline is further ahead than the wheel can reach
+     */
+    public Timeout<T> schedule(T value, long deadlineNanos) {
+        long deadlineTick = Math.max(currentTick + 1, ceilDiv(deadlineNanos - startNanos, tickNanos));
+        if (deadlineTick - currentTick >= MAX_TICKS) {
+            throw new IllegalArgumentException("Deadline is more than " + MAX_TICKS + " ticks ahead");
+        }
+        Timeout<T> timeout = new Timeout<>(value, deadlineTick);
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes a pending timeout, so it never fires.
+     *
+     * @return {@code false} if the timeout had already fired or been cancelled
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (timeout.next == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to {@code nowNanos}, handing each timeout that has come due to
+     * {@code expired}, one tick at a time.
+     */
+    public void advance(long nowNanos, Consumer<? super T> expired) {
+        long targetTick = (nowNanos - startNanos) / tickNanos;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level, slotIndex(currentTick, level));
+                }
+            }
+            Timeout<T> head = slots[0][slotIndex(currentTick, 0)];
+            while (head.next != head) {
+                Timeout<T> timeout = head.next;
+                timeout.unlink();
+                size--;
+                expired.accept(timeout.value);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout<T> head = slots[level][slot];
+        while (head.next != head) {
+            Timeout<T> timeout = head.next;
+            timeout.unlink();
+            insert(timeout);
+        }
+    }
+
+    private void insert(Timeout<T> timeout) {
+        long remaining = timeout.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        slots[level][slotIndex(timeout.deadlineTick, level)].linkBefore(timeout);
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * A scheduled timeout. Slots are circular doubly-linked lists, so a timeout can be unlinked
+     * without searching; {@code next} is {@code null} once it has fired or been cancelled.
+     */
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+        private Timeout<T> next;
+        private Timeout<T> previous;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+
+        private static <T> Timeout<T> sentinel() {
+            Timeout<T> sentinel = new Timeout<>(null, 0);
+            sentinel.next = sentinel;
+            sentinel.previous = sentinel;
+            return sentinel;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        private void linkBefore(Timeout<T> timeout) {
+            timeout.next = this;
+            timeout.previous = previous;
+            previous.next = timeout;
+            previous = timeout;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            next = null;
+            previous = null;
+        }
+    }
+}
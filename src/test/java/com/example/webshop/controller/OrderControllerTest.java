@@ -0,0 +1,74 @@
+package com.example.webshop.controller;
+
+import com.example.webshop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+class OrderControllerTest {
+    private static final String CUSTOMER =
+            "\"customerInfo\":{\"name\":\"John Doe\",\"address\":\"123 Main St\",\"email\":\"john@example.com\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void createOrder_WithUnknownProduct_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{" + CUSTOMER + ",\"items\":[{\"productId\":999,\"quantity\":1}]}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Product not found with id: 999"));
+    }
+
+    @Test
+    void createOrder_WithIdempotencyKeyOfDifferentRequest_ShouldReturnUnprocessableEntity() throws Exception {
+        MvcResult first = mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .content("{" + CUSTOMER + ",\"items\":[{\"productId\":1,\"quantity\":1}]}"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(first)).andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .content("{\"items\":[{\"quantity\":1,\"productId\":1}], " + CUSTOMER + "}"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                        .content("{" + CUSTOMER + ",\"items\":[{\"productId\":1,\"quantity\":2}]}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createReservation_WithUnknownProduct_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(post("/api/reservations").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"productId\":1,\"quantity\":1},{\"productId\":999,\"quantity\":1}]}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void createOrder_InvalidRequestForSoldOutProduct_ShouldReportInvalidRequest() throws Exception {
+        productRepository.updateStock(2L, 0);
+
+        mockMvc.perform(post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"productId\":2,\"quantity\":1}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Customer information is required"));
+    }
+}
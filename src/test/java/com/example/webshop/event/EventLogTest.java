@@ -0,0 +1,85 @@
+package com.example.webshop.event;
+
+import com.example.webshop.model.ChangeEvent;
+import com.example.webshop.model.ChangeEventPage;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.StockLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+
+    @Test
+    void read_ShouldReturnEventsInOffsetOrder() throws Exception {
+        EventLog eventLog = new EventLog(8);
+        Order order = new Order();
+        eventLog.onOrderCreated(new OrderCreatedEvent(order));
+        eventLog.onStockChanged(new StockChangedEvent(new StockLevel(1L, 4, 2)));
+        eventLog.onStockChanged(new StockChangedEvent(new StockLevel(2L, 0, 7)));
+
+        ChangeEventPage page = eventLog.read(1, 10, 0);
+
+        assertEquals(2, page.getEvents().size());
+        assertEquals(1, page.getEvents().get(0).getOffset());
+        assertEquals(ChangeEvent.STOCK_CHANGED, page.getEvents().get(0).getType());
+        assertEquals(3, page.getNextOffset());
+        assertFalse(page.isTruncated());
+        assertSame(order, eventLog.read(0, 1, 0).getEvents().get(0).getData());
+        assertEquals(1, eventLog.read(0, 1, 0).getNextOffset());
+    }
+
+    @Test
+    void read_BehindRetainedEvents_ShouldSkipAheadAndReportTruncation() throws Exception {
+        EventLog eventLog = new EventLog(4);
+        for (int i = 0; i < 10; i++) {
+            eventLog.append(ChangeEvent.STOCK_CHANGED, i);
+        }
+
+        ChangeEventPage page = eventLog.read(2, 10, 0);
+
+        assertTrue(page.isTruncated());
+        assertEquals(6, page.getEvents().get(0).getOffset());
+        assertEquals(4, page.getEvents().size());
+        assertEquals(10, page.getNextOffset());
+    }
+
+    @Test
+    void read_AtEnd_ShouldWaitForNextEvent() throws Exception {
+        EventLog eventLog = new EventLog(8);
+        eventLog.append(ChangeEvent.STOCK_CHANGED, "first");
+
+        CompletableFuture<ChangeEventPage> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return eventLog.read(5, 10, TimeUnit.SECONDS.toNanos(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        eventLog.append(ChangeEvent.STOCK_CHANGED, "second");
+
+        ChangeEventPage page = waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(1, page.getEvents().size());
+        assertEquals("second", page.getEvents().get(0).getData());
+        assertEquals(2, page.getNextOffset());
+    }
+
+    @Test
+    void read_WithNothingNew_ShouldReturnEmptyPageAfterTimeout() throws Exception {
+        EventLog eventLog = new EventLog(8);
+
+        ChangeEventPage page = eventLog.read(0, 10, TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertTrue(page.getEvents().isEmpty());
+        assertEquals(0, page.getNextOffset());
+    }
+
+    @Test
+    void constructor_WithCapacityNotPowerOfTwo_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(1000));
+    }
+}
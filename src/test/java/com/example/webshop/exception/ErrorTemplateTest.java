@@ -0,0 +1,45 @@
+package com.example.webshop.exception;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorTemplateTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void render_ShouldWriteMessageTimestampAndStatus() throws Exception {
+        ResponseEntity<byte[]> response = new ErrorTemplate(HttpStatus.NOT_FOUND)
+                .render(new InvalidOrderException("Bad \"quote\" and\nnewline – ü"));
+
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("Bad \"quote\" and\nnewline – ü", body.get("message").asText());
+        assertEquals(404, body.get("status").asInt());
+        assertNotNull(LocalDateTime.parse(body.get("timestamp").asText()));
+    }
+
+    @Test
+    void render_WithFixedMessage_ShouldHideExceptionMessage() throws Exception {
+        byte[] body = new ErrorTemplate(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred")
+                .body(new IllegalStateException("secret"));
+
+        assertEquals("An unexpected error occurred", objectMapper.readTree(body).get("message").asText());
+    }
+
+    @Test
+    void render_WithoutMessage_ShouldWriteNull() throws Exception {
+        byte[] body = new ErrorTemplate(HttpStatus.BAD_REQUEST).body(new RuntimeException());
+
+        assertTrue(objectMapper.readTree(body).get("message").isNull());
+    }
+}
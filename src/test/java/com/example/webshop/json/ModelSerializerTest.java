@@ -0,0 +1,81 @@
+package com.example.webshop.json;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // Mix-ins override the class annotations, giving Jackson's reflective bean serialization
+    private final ObjectMapper beanMapper = objectMapper.copy()
+            .addMixIn(Order.class, BeanSerialized.class)
+            .addMixIn(Product.class, BeanSerialized.class);
+
+    @JsonSerialize
+    private abstract static class BeanSerialized {
+    }
+
+    @Test
+    void serialize_Order_ShouldMatchBeanSerialization() throws Exception {
+        Order order = new Order(42L, new CustomerInfo("Åsa \"A\" Berg", "Storgatan 1\nStockholm", "asa@example.com"),
+                List.of(new OrderItem(1L, 2, Money.of("12999.99")), new OrderItem(3L, 1, Money.of("0.05"))),
+                Money.of("26000.03"), LocalDateTime.of(2024, 5, 1, 13, 45, 7, 123_400_000));
+
+        assertInstanceOf(BeanSerializer.class, beanMapper.getSerializerProviderInstance().findValueSerializer(Order.class));
+        assertInstanceOf(OrderSerializer.class, objectMapper.getSerializerProviderInstance().findValueSerializer(Order.class));
+        assertEquals(beanMapper.writeValueAsString(order), objectMapper.writeValueAsString(order));
+    }
+
+    @Test
+    void serialize_OrderWithNulls_ShouldMatchBeanSerialization() throws Exception {
+        Order order = new Order();
+
+        assertEquals(beanMapper.writeValueAsString(order), objectMapper.writeValueAsString(order));
+    }
+
+    @Test
+    void serialize_OrderWithDatesAsTimestamps_ShouldMatchBeanSerialization() throws Exception {
+        ObjectMapper timestamps = new ObjectMapper().findAndRegisterModules();
+        Order order = new Order(1L, null, List.of(), Money.ZERO, LocalDateTime.of(2024, 1, 2, 3, 4));
+
+        assertEquals(timestamps.copy().addMixIn(Order.class, BeanSerialized.class).writeValueAsString(order),
+                timestamps.writeValueAsString(order));
+    }
+
+    @Test
+    void serialize_Product_ShouldMatchBeanSerialization() throws Exception {
+        Product product = new Product(7L, "Laptop", null, Money.of("-1.50"), "https://example.com/laptop.jpg", 3);
+
+        assertEquals(beanMapper.writeValueAsString(product), objectMapper.writeValueAsString(product));
+    }
+
+    @Test
+    void getChars_ShouldFormatLikeIsoLocalDateTime() {
+        char[] buffer = new char[JsonDates.MAX_LENGTH];
+        for (LocalDateTime value : List.of(
+                LocalDateTime.of(2024, 5, 1, 0, 0),
+                LocalDateTime.of(1, 1, 1, 1, 1, 1, 1),
+                LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_999),
+                LocalDateTime.of(2024, 5, 1, 13, 45, 7, 120_000),
+                LocalDateTime.of(2024, 5, 1, 13, 45, 7, 100_000_000))) {
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value),
+                    new String(buffer, 0, JsonDates.getChars(value, buffer, 0)));
+        }
+        assertEquals(-1, JsonDates.getChars(LocalDateTime.of(10000, 1, 1, 0, 0), buffer, 0));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.webshop.metrics;
+
+import com.example.webshop.exception.InsufficientStockException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private CheckoutMetrics checkoutMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        checkoutMetrics = new CheckoutMetrics(registry);
+    }
+
+    @Test
+    void constructor_ShouldRegisterEveryTimerUpFront() {
+        assertEquals(8, registry.find("webshop.checkout.latency").timers().size());
+    }
+
+    @Test
+    void recordCheckout_ShouldRecordIntoItemCountBucketAndOutcome() {
+        checkoutMetrics.recordCheckout(1, System.nanoTime(), true);
+        checkoutMetrics.recordCheckout(3, System.nanoTime(), true);
+        checkoutMetrics.recordCheckout(5, System.nanoTime(), false);
+        checkoutMetrics.recordCheckout(50, System.nanoTime(), true);
+
+        assertEquals(1, timerCount("1", "success"));
+        assertEquals(1, timerCount("2-5", "success"));
+        assertEquals(1, timerCount("2-5", "failure"));
+        assertEquals(0, timerCount("6-20", "success"));
+        assertEquals(1, timerCount("21+", "success"));
+    }
+
+    @Test
+    void recordRejection_ShouldCountByExceptionType() {
+        checkoutMetrics.recordRejection(new InsufficientStockException(1L, 5, 2));
+        checkoutMetrics.recordRejection(new InsufficientStockException(1L, 5, 2));
+
+        assertEquals(2.0, registry.get("webshop.requests.rejected")
+                .tag("exception", "InsufficientStockException")
+                .counter().count());
+    }
+
+    private long timerCount(String items, String outcome) {
+        return registry.get("webshop.checkout.latency").tag("items", items).tag("outcome", outcome).timer().count();
+    }
+}
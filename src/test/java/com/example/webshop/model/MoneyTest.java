@@ -0,0 +1,61 @@
+package com.example.webshop.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void times_ShouldBeExact() {
+        Money price = Money.of("12999.99");
+
+        assertEquals(Money.of("38999.97"), price.times(3));
+        assertEquals(Money.of("0.30"), Money.of("0.10").plus(Money.of("0.20")));
+    }
+
+    @Test
+    void of_WithMoreThanTwoDecimals_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("abc"));
+        assertEquals(Money.of("1.5"), Money.of("1.50"));
+    }
+
+    @Test
+    void times_WhenOverflowing_ShouldThrowException() {
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE / 2).times(3));
+    }
+
+    @Test
+    void toString_ShouldAlwaysShowTwoDecimals() {
+        assertEquals("12999.99", Money.of("12999.99").toString());
+        assertEquals("5.00", Money.of("5").toString());
+        assertEquals("0.07", Money.ofMinor(7).toString());
+        assertEquals("-0.50", Money.ofMinor(-50).toString());
+        assertEquals("-92233720368547758.08", Money.ofMinor(Long.MIN_VALUE).toString());
+        assertEquals("92233720368547758.07", Money.ofMinor(Long.MAX_VALUE).toString());
+        assertEquals(new BigDecimal("-0.50"), Money.ofMinor(-50).toBigDecimal());
+    }
+
+    @Test
+    void json_ShouldRoundTripAsExactNumber() throws Exception {
+        OrderItem item = new OrderItem(1L, 3, Money.of("12999.99"));
+
+        String json = objectMapper.writeValueAsString(item);
+        OrderItem read = objectMapper.readValue(json, OrderItem.class);
+
+        assertTrue(json.contains("\"priceAtPurchase\":12999.99"), json);
+        assertEquals(Money.of("12999.99"), read.getPriceAtPurchase());
+    }
+
+    @Test
+    void json_WithFloatingPointArtifacts_ShouldRoundToMinorUnits() throws Exception {
+        assertEquals(Money.of("38999.97"), objectMapper.readValue("38999.969999999994", Money.class));
+        assertEquals(Money.of("12.50"), objectMapper.readValue("\"12.5\"", Money.class));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.webshop.persistence;
+
+import com.example.webshop.event.OrderDiscardedEvent;
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.event.ReservationCreatedEvent;
+import com.example.webshop.event.ReservationEndedEvent;
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.exception.ReservationNotFoundException;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.ReservationRequest;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.OrderStore;
+import com.example.webshop.repository.ProductRepository;
+import com.example.webshop.service.ProductService;
+import com.example.webshop.service.ReservationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void restart_ShouldRecoverOrdersAndStockFromLog() throws IOException {
+        Node first = start();
+        first.productRepository.tryReserveStock(1L, 3);
+        first.orderRepository.save(newOrder(1L, 3));
+        first.close();
+
+        Node second = start();
+
+        assertEquals(first.productRepository.getStock(1L), second.productRepository.getStock(1L));
+        Order recovered = second.orderRepository.findById(1L).orElseThrow();
+        assertEquals("john@example.com", recovered.getCustomerInfo().getEmail());
+        assertEquals(3, recovered.getItems().get(0).getQuantity());
+        assertEquals(2L, second.orderRepository.save(new Order()).getId());
+        second.close();
+    }
+
+    @Test
+    void restart_AfterSnapshot_ShouldRecoverSnapshotPlusLogTail() throws IOException {
+        Node first = start();
+        first.productRepository.tryReserveStock(2L, 5);
+        first.orderRepository.save(newOrder(2L, 5));
+        first.persistence.snapshot();
+        first.productRepository.tryReserveStock(2L, 1);
+        first.orderRepository.save(newOrder(2L, 1));
+        first.close();
+
+        Node second = start();
+
+        assertEquals(first.productRepository.getStock(2L), second.productRepository.getStock(2L));
+        assertEquals(2, second.orderRepository.count());
+        second.close();
+    }
+
+    @Test
+    void restart_WithOpenReservation_ShouldKeepHoldingItsStock() throws IOException {
+        Node first = start();
+        Reservation open = first.reservationService.create(new ReservationRequest(List.of(new OrderItemRequest(3L, 4))));
+        Reservation released = first.reservationService.create(new ReservationRequest(List.of(new OrderItemRequest(3L, 2))));
+        first.persistence.snapshot();
+        first.reservationService.release(released.getId());
+        first.close();
+
+        Node second = start();
+
+        assertEquals(first.productRepository.getStock(3L), second.productRepository.getStock(3L));
+        assertEquals(open.getId(), second.reservationService.get(open.getId()).getId());
+        assertThrows(ReservationNotFoundException.class, () -> second.reservationService.get(released.getId()));
+        second.reservationService.release(open.getId());
+        assertEquals(first.productRepository.getStock(3L) + 4, second.productRepository.getStock(3L));
+        second.close();
+
+        Node third = start();
+
+        assertEquals(second.productRepository.getStock(3L), third.productRepository.getStock(3L));
+        assertEquals(0, third.reservationService.size());
+        third.close();
+    }
+
+    @Test
+    void restart_AfterOrderFailedToStore_ShouldNotBringItBack() throws IOException {
+        boolean[] failPuts = {false};
+        Node first = new Node(new HeapOrderStore() {
+            @Override
+            public void put(Order order) {
+                if (failPuts[0]) {
+                    throw new IllegalStateException("Store unavailable");
+                }
+                super.put(order);
+            }
+        });
+        first.orderRepository.save(newOrder(1L, 1));
+        failPuts[0] = true;
+        assertThrows(IllegalStateException.class, () -> first.orderRepository.save(newOrder(1L, 2)));
+        failPuts[0] = false;
+        first.orderRepository.save(newOrder(1L, 3));
+        first.close();
+
+        Node second = start();
+
+        assertEquals(2, second.orderRepository.count());
+        assertTrue(second.orderRepository.findById(2L).isEmpty());
+        assertEquals(2, second.orderRepository.findPageByCustomerEmail("john@example.com", null, 10).size());
+        second.close();
+    }
+
+    private Node start() throws IOException {
+        return new Node(new HeapOrderStore());
+    }
+
+    private Order newOrder(Long productId, int quantity) {
+        Order order = new Order();
+        order.setCustomerInfo(new CustomerInfo("John Doe", "123 Main St", "john@example.com"));
+        order.setItems(List.of(new OrderItem(productId, quantity, Money.of("100.00"))));
+        order.setTotalAmount(Money.of("100.00").times(quantity));
+        order.setOrderDate(LocalDateTime.now());
+        return order;
+    }
+
+    private class Node {
+        final ProductRepository productRepository;
+        final OrderRepository orderRepository;
+        final ReservationService reservationService;
+        final PersistenceManager persistence;
+        private PersistenceManager listener;
+
+        Node(OrderStore orderStore) throws IOException {
+            ApplicationEventPublisher publisher = event -> {
+                if (listener == null) {
+                    return;
+                }
+                if (event instanceof OrderStoringEvent orderStoring) {
+                    listener.onOrderStoring(orderStoring);
+                } else if (event instanceof OrderDiscardedEvent orderDiscarded) {
+                    listener.onOrderDiscarded(orderDiscarded);
+                } else if (event instanceof StockChangedEvent stockChanged) {
+                    listener.onStockChanged(stockChanged);
+                } else if (event instanceof ReservationCreatedEvent reservationCreated) {
+                    listener.onReservationCreated(reservationCreated);
+                } else if (event instanceof ReservationEndedEvent reservationEnded) {
+                    listener.onReservationEnded(reservationEnded);
+                }
+            };
+            productRepository = new ProductRepository(publisher);
+            orderRepository = new OrderRepository(publisher, orderStore);
+            reservationService = new ReservationService(new ProductService(productRepository), publisher, 600, 100);
+            persistence = new PersistenceManager(productRepository, orderRepository, reservationService,
+                    objectMapper, directory.toString(), 10, 3600);
+            listener = persistence;
+            persistence.restoreReservations();
+        }
+
+        void close() throws IOException {
+            persistence.close();
+            reservationService.shutdown();
+        }
+    }
+}
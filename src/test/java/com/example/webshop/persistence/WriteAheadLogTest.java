@@ -0,0 +1,111 @@
+package com.example.webshop.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_ShouldReturnRecordsInAppendOrderAcrossSegments() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append((byte) 1, bytes("first"));
+            wal.rotate();
+            wal.append((byte) 2, bytes("second"));
+        }
+
+        List<String> records = replayAll(0);
+
+        assertEquals(List.of("1:first", "2:second"), records);
+    }
+
+    @Test
+    void replay_ShouldSkipSegmentsBeforeStartingSegment() throws IOException {
+        long secondSegment;
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append((byte) 1, bytes("first"));
+            secondSegment = wal.rotate();
+            wal.append((byte) 1, bytes("second"));
+        }
+
+        assertEquals(List.of("1:second"), replayAll(secondSegment));
+    }
+
+    @Test
+    void replay_WithTornTail_ShouldStopAtLastCompleteRecordAndTruncate() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append((byte) 1, bytes("complete"));
+            wal.append((byte) 1, bytes("torn"));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        long size = Files.size(segment);
+        try (var channel = java.nio.channels.FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+
+        assertEquals(List.of("1:complete"), replayAll(0));
+        assertEquals(List.of("1:complete"), replayAll(0));
+    }
+
+    @Test
+    void replay_WithCorruptRecordInOlderSegment_ShouldFail() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append((byte) 1, bytes("first"));
+            wal.append((byte) 1, bytes("second"));
+            wal.rotate();
+            wal.append((byte) 1, bytes("third"));
+        }
+        Path oldest;
+        try (Stream<Path> files = Files.list(directory)) {
+            oldest = files.sorted().findFirst().orElseThrow();
+        }
+        byte[] data = Files.readAllBytes(oldest);
+        data[data.length - 1] ^= 1;
+        Files.write(oldest, data);
+
+        assertThrows(IOException.class, () -> replayAll(0));
+        assertArrayEquals(data, Files.readAllBytes(oldest));
+    }
+
+    @Test
+    void deleteSegmentsBefore_ShouldRemoveCompactedSegments() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.append((byte) 1, bytes("old"));
+            long current = wal.rotate();
+            wal.append((byte) 1, bytes("new"));
+            wal.deleteSegmentsBefore(current);
+        }
+
+        assertEquals(List.of("1:new"), replayAll(0));
+    }
+
+    private List<String> replayAll(long fromSegment) throws IOException {
+        List<String> records = new ArrayList<>();
+        WriteAheadLog.replay(directory, fromSegment, (type, payload) -> {
+            byte[] data = new byte[payload.remaining()];
+            payload.get(data);
+            records.add(type + ":" + new String(data, StandardCharsets.UTF_8));
+        });
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactOrderStoreTest extends OrderStoreContractTest {
+
+    @Override
+    protected OrderStore createStore() {
+        return new CompactOrderStore();
+    }
+
+    @Test
+    void get_ShouldKeepCustomerInstance() {
+        CustomerInfo customer = new CustomerInfo("John Doe", "123 Main St", "john@example.com");
+
+        store.put(new Order(1L, customer, List.of(), Money.ZERO, null));
+
+        assertSame(customer, store.get(1L).getCustomerInfo());
+    }
+
+    @Test
+    void get_WhileOrderIsReplaced_ShouldReturnOneWholeOrder() throws InterruptedException {
+        CustomerInfo first = new CustomerInfo("John Doe", "123 Main St", "john@example.com");
+        CustomerInfo second = new CustomerInfo("Jane Doe", "456 Oak Ave", "jane@example.com");
+        Order small = new Order(1L, first,
+                List.of(new OrderItem(1L, 1, Money.of("1.00")), new OrderItem(1L, 1, Money.of("1.00"))),
+                Money.of("2.00"), null);
+        Order large = new Order(1L, second, List.of(new OrderItem(2L, 3, Money.of("3.00"))), Money.of("9.00"), null);
+        store.put(small);
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) {
+                store.put(i % 2 == 0 ? large : small);
+            }
+            done.set(true);
+        });
+        writer.start();
+        while (!done.get()) {
+            Order order = store.get(1L);
+            if (order.getCustomerInfo() == first) {
+                assertEquals(2, order.getItems().size());
+                assertEquals(Money.of("2.00"), order.getTotalAmount());
+                assertEquals(1L, order.getItems().get(1).getProductId());
+            } else {
+                assertSame(second, order.getCustomerInfo());
+                assertEquals(1, order.getItems().size());
+                assertEquals(Money.of("9.00"), order.getTotalAmount());
+                assertEquals(3, order.getItems().get(0).getQuantity());
+            }
+        }
+        writer.join();
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void put_WithIdOutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> store.put(new Order(null, null, null, Money.ZERO, null)));
+        assertThrows(IllegalArgumentException.class, () -> store.put(new Order(0L, null, null, Money.ZERO, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.put(new Order(Long.MAX_VALUE, null, null, Money.ZERO, null)));
+        assertNull(store.get(Long.MAX_VALUE));
+        assertEquals(0, store.size());
+    }
+}
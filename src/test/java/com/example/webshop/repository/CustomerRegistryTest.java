@@ -0,0 +1,40 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerRegistryTest {
+
+    private final CustomerRegistry customerRegistry = new CustomerRegistry();
+
+    @Test
+    void canonicalize_WithEqualDetails_ShouldReturnFirstInstance() {
+        CustomerInfo first = new CustomerInfo("Ann", "Street 1", "ann@example.com");
+
+        assertSame(first, customerRegistry.canonicalize(first));
+        assertSame(first, customerRegistry.canonicalize(new CustomerInfo("Ann", "Street 1", "ann@example.com")));
+        assertEquals(1, customerRegistry.size());
+    }
+
+    @Test
+    void canonicalize_WithChangedDetails_ShouldRegisterNewDetails() {
+        CustomerInfo first = customerRegistry.canonicalize(new CustomerInfo("Ann", "Street 1", "ann@example.com"));
+        CustomerInfo moved = new CustomerInfo("Ann", "Street 2", "ANN@example.com ");
+
+        assertSame(moved, customerRegistry.canonicalize(moved));
+        assertSame(moved, customerRegistry.canonicalize(new CustomerInfo("Ann", "Street 2", "ANN@example.com ")));
+        assertNotSame(first, customerRegistry.canonicalize(new CustomerInfo("Ann", "Street 1", "ann@example.com")));
+        assertEquals(1, customerRegistry.size());
+    }
+
+    @Test
+    void canonicalize_WithoutEmail_ShouldReturnSameInstance() {
+        CustomerInfo anonymous = new CustomerInfo("Ann", "Street 1", null);
+
+        assertSame(anonymous, customerRegistry.canonicalize(anonymous));
+        assertNull(customerRegistry.canonicalize(null));
+        assertEquals(0, customerRegistry.size());
+    }
+}
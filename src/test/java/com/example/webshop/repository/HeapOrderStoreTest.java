@@ -0,0 +1,9 @@
+package com.example.webshop.repository;
+
+class HeapOrderStoreTest extends OrderStoreContractTest {
+
+    @Override
+    protected OrderStore createStore() {
+        return new HeapOrderStore();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcOrderStoreTest extends OrderStoreContractTest {
+
+    @TempDir
+    Path directory;
+
+    @Override
+    protected OrderStore createStore() {
+        return new JdbcOrderStore("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", 4, 256);
+    }
+
+    @Override
+    protected int ordersPerThread() {
+        return 1_000;
+    }
+
+    @Test
+    void reopen_ShouldKeepOrdersAndLetRepositoryContinue() throws Exception {
+        String url = "jdbc:h2:" + directory.resolve("orders");
+        try (JdbcOrderStore first = new JdbcOrderStore(url, "sa", "", 2, 16)) {
+            OrderRepository orderRepository = new OrderRepository(event -> { }, first);
+            orderRepository.save(new Order(null, new CustomerInfo("Ann", "Street 1", "ann@example.com"),
+                    List.of(new OrderItem(1L, 2, Money.of("9.99"))), Money.of("19.98"), null));
+        }
+
+        try (JdbcOrderStore reopened = new JdbcOrderStore(url, "sa", "", 2, 16)) {
+            OrderRepository orderRepository = new OrderRepository(event -> { }, reopened);
+
+            assertEquals(1, reopened.size());
+            assertEquals(Money.of("19.98"), orderRepository.findById(1L).orElseThrow().getTotalAmount());
+            assertEquals(1, orderRepository.findPageByCustomerEmail("ann@example.com", null, 10).size());
+            assertEquals(2L, orderRepository.save(new Order()).getId());
+        }
+    }
+
+    @Test
+    void restore_OfOrderStoredBeforeStartup_ShouldLeaveItAlone() throws Exception {
+        String url = "jdbc:h2:" + directory.resolve("orders");
+        try (JdbcOrderStore first = new JdbcOrderStore(url, "sa", "", 2, 16)) {
+            first.put(new Order(1L, null, null, Money.of("5.00"), null));
+        }
+
+        try (JdbcOrderStore reopened = new JdbcOrderStore(url, "sa", "", 2, 16)) {
+            OrderRepository orderRepository = new OrderRepository(event -> { }, reopened);
+            orderRepository.restore(new Order(1L, null, null, Money.of("7.00"), null));
+            orderRepository.restore(new Order(2L, null, null, Money.of("3.00"), null));
+
+            assertEquals(Money.of("5.00"), reopened.get(1L).getTotalAmount());
+            assertEquals(Money.of("3.00"), reopened.get(2L).getTotalAmount());
+            assertEquals(2, reopened.size());
+        }
+    }
+
+    @Test
+    void close_WhenInterrupted_ShouldStillCloseAndKeepInterruptFlag() {
+        JdbcOrderStore store = new JdbcOrderStore("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", 2, 16);
+
+        Thread.currentThread().interrupt();
+        store.close();
+
+        assertTrue(Thread.interrupted());
+        assertThrows(IllegalStateException.class, () -> store.put(new Order(1L, null, null, Money.ZERO, null)));
+    }
+}
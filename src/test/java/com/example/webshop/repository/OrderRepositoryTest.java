@@ -0,0 +1,221 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.event.OrderDiscardedEvent;
+import com.example.webshop.event.OrderStoringEvent;
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderRepositoryTest {
+
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = new OrderRepository(event -> { }, new HeapOrderStore());
+    }
+
+    @Test
+    void save_WithoutId_ShouldAssignSequentialIds() {
+        Order first = orderRepository.save(new Order());
+        Order second = orderRepository.save(new Order());
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        assertSame(first, orderRepository.findById(1L).orElseThrow());
+    }
+
+    @Test
+    void save_WhenStoringEventFails_ShouldNotStoreOrder() {
+        orderRepository = new OrderRepository(event -> {
+            throw new IllegalStateException("log unavailable");
+        }, new HeapOrderStore());
+
+        assertThrows(IllegalStateException.class, () -> orderRepository.save(new Order()));
+
+        assertTrue(orderRepository.findById(1L).isEmpty());
+        assertEquals(0, orderRepository.count());
+        assertTrue(orderRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void save_WhenStoreFails_ShouldAnnounceDiscardInsteadOfCreation() {
+        List<Object> events = new ArrayList<>();
+        orderRepository = new OrderRepository(events::add, new HeapOrderStore() {
+            @Override
+            public void put(Order order) {
+                throw new IllegalStateException("Store unavailable");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> orderRepository.save(new Order()));
+
+        assertEquals(2, events.size());
+        assertInstanceOf(OrderStoringEvent.class, events.get(0));
+        assertEquals(1L, assertInstanceOf(OrderDiscardedEvent.class, events.get(1)).getOrderId());
+    }
+
+    @Test
+    void findPageByCustomerEmail_ShouldPageThroughCustomerOrdersNewestFirst() {
+        for (int i = 0; i < 5; i++) {
+            orderRepository.save(orderFor(i % 2 == 0 ? "ann@example.com" : "bob@example.com"));
+        }
+
+        List<Order> firstPage = orderRepository.findPageByCustomerEmail(" Ann@Example.com", null, 2);
+        List<Order> lastPage = orderRepository.findPageByCustomerEmail("ann@example.com", 3L, 2);
+
+        assertEquals(List.of(5L, 3L), firstPage.stream().map(Order::getId).toList());
+        assertEquals(List.of(1L), lastPage.stream().map(Order::getId).toList());
+        assertTrue(orderRepository.findPageByCustomerEmail("eve@example.com", null, 2).isEmpty());
+    }
+
+    @Test
+    void save_WithChangedEmail_ShouldMoveOrderToNewCustomer() {
+        Order order = orderRepository.save(orderFor("ann@example.com"));
+
+        Order changed = orderFor("bob@example.com");
+        changed.setId(order.getId());
+        orderRepository.save(changed);
+
+        assertTrue(orderRepository.findPageByCustomerEmail("ann@example.com", null, 10).isEmpty());
+        assertSame(changed, orderRepository.findPageByCustomerEmail("bob@example.com", null, 10).get(0));
+    }
+
+    @Test
+    void save_WithRepeatCustomer_ShouldShareCustomerInfo() {
+        Order first = orderRepository.save(orderFor("ann@example.com"));
+        Order second = orderRepository.save(orderFor("ann@example.com"));
+
+        assertSame(first.getCustomerInfo(), second.getCustomerInfo());
+    }
+
+    @Test
+    void save_WithExplicitId_ShouldNotBeReusedByAllocator() {
+        Order existing = new Order();
+        existing.setId(10L);
+        orderRepository.save(existing);
+
+        Order next = orderRepository.save(new Order());
+
+        assertEquals(11L, next.getId());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void findPage_WithOrderStillBeingStored_ShouldNotPageBeyondIt() throws Exception {
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        orderRepository = new OrderRepository(event -> { }, new HeapOrderStore() {
+            @Override
+            public void put(Order order) {
+                if (order.getId() == 1L) {
+                    storing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.put(order);
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Order> slow = executor.submit(() -> orderRepository.save(new Order()));
+            assertTrue(storing.await(10, TimeUnit.SECONDS));
+            orderRepository.save(new Order());
+
+            assertTrue(orderRepository.findPage(0, 10).isEmpty());
+
+            release.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+            assertEquals(List.of(1L, 2L), orderRepository.findPage(0, 10).stream().map(Order::getId).toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findPage_AfterExplicitIdBeyondAllocated_ShouldPageAcrossTheGap() {
+        orderRepository.save(new Order());
+        Order explicit = new Order();
+        explicit.setId(1000L);
+        orderRepository.save(explicit);
+        orderRepository.save(new Order());
+
+        assertEquals(List.of(1L, 1000L, 1001L), orderRepository.findPage(0, 10).stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void findPage_ShouldReturnOrdersAfterCursorInIdOrder() {
+        for (int i = 0; i < 5; i++) {
+            orderRepository.save(new Order());
+        }
+
+        List<Order> firstPage = orderRepository.findPage(0, 2);
+        List<Order> lastPage = orderRepository.findPage(4, 2);
+
+        assertEquals(List.of(1L, 2L), firstPage.stream().map(Order::getId).toList());
+        assertEquals(List.of(5L), lastPage.stream().map(Order::getId).toList());
+        assertTrue(orderRepository.findPage(5, 2).isEmpty());
+    }
+
+    @Test
+    void save_UnderConcurrentLoad_ShouldNotLoseOrdersOrDuplicateIds() throws Exception {
+        int threads = 16;
+        int ordersPerThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>(ordersPerThread);
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        ids.add(orderRepository.save(new Order()).getId());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> allIds = new HashSet<>();
+            for (Future<List<Long>> result : results) {
+                for (Long id : result.get(30, TimeUnit.SECONDS)) {
+                    assertTrue(allIds.add(id), "Duplicate order id: " + id);
+                }
+            }
+
+            int expected = threads * ordersPerThread;
+            assertEquals(expected, allIds.size());
+            assertEquals(expected, orderRepository.count());
+            for (Long id : allIds) {
+                assertTrue(orderRepository.findById(id).isPresent(), "Lost order id: " + id);
+            }
+            assertEquals(expected, orderRepository.findAll().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Order orderFor(String email) {
+        Order order = new Order();
+        order.setCustomerInfo(new CustomerInfo("Customer", "Street 1", email));
+        return order;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link OrderStore} layout must have. Each layout's test extends this class
+ * and supplies a fresh, empty store.
+ */
+abstract class OrderStoreContractTest {
+
+    protected OrderStore store;
+
+    protected abstract OrderStore createStore() throws Exception;
+
+    /**
+     * Orders written per thread by the concurrency test; slower layouts may write fewer.
+     */
+    protected int ordersPerThread() {
+        return 20_000;
+    }
+
+    @BeforeEach
+    void createEmptyStore() throws Exception {
+        store = createStore();
+    }
+
+    @AfterEach
+    void closeStore() throws Exception {
+        if (store instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void get_ShouldMaterializeStoredOrder() {
+        CustomerInfo customer = new CustomerInfo("John Doe", "123 Main St", "john@example.com");
+        LocalDateTime orderDate = LocalDateTime.of(2024, 12, 17, 10, 30, 45, 123_000_000);
+        Order order = new Order(1L, customer,
+                Arrays.asList(new OrderItem(1L, 2, Money.of("12999.99")), new OrderItem(3L, 1, Money.of("1999.99"))),
+                Money.of("27999.97"), orderDate);
+
+        store.put(order);
+        Order stored = store.get(1L);
+
+        assertEquals(1L, stored.getId());
+        assertEquals(customer, stored.getCustomerInfo());
+        assertEquals(Money.of("27999.97"), stored.getTotalAmount());
+        assertEquals(orderDate, stored.getOrderDate());
+        assertEquals(2, stored.getItems().size());
+        assertEquals(3L, stored.getItems().get(1).getProductId());
+        assertEquals(1, stored.getItems().get(1).getQuantity());
+        assertEquals(Money.of("1999.99"), stored.getItems().get(1).getPriceAtPurchase());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void findPage_ShouldReturnOrdersOfRangeInIdOrderWithTheirItems() {
+        for (long id : new long[]{5, 1, 3, 4, 9}) {
+            store.put(new Order(id, null, new ArrayList<>(List.of(new OrderItem(id, (int) id, Money.of("1.00")))),
+                    Money.of("1.00"), null));
+        }
+
+        List<Order> page = store.findPage(1, 5, 2);
+
+        assertEquals(List.of(3L, 4L), page.stream().map(Order::getId).toList());
+        assertEquals(4, page.get(1).getItems().get(0).getQuantity());
+        assertEquals(List.of(5L), store.findPage(4, 8, 10).stream().map(Order::getId).toList());
+        assertTrue(store.findPage(9, 100, 10).isEmpty());
+    }
+
+    @Test
+    void get_WithUnknownId_ShouldReturnNull() {
+        store.put(new Order(1L, null, null, Money.ZERO, null));
+
+        assertNull(store.get(2L));
+        assertNull(store.get(1_000_000L));
+        assertNull(store.get(0L));
+    }
+
+    @Test
+    void put_WithEmptyFields_ShouldRoundTripNulls() {
+        store.put(new Order(5L, null, null, null, null));
+
+        Order stored = store.get(5L);
+
+        assertNull(stored.getCustomerInfo());
+        assertNull(stored.getTotalAmount());
+        assertNull(stored.getItems());
+        assertNull(stored.getOrderDate());
+    }
+
+    @Test
+    void put_WithExistingId_ShouldReplaceOrder() {
+        store.put(new Order(2L, null, List.of(new OrderItem(1L, 1, Money.of("1.00")),
+                new OrderItem(2L, 1, Money.of("2.00"))), Money.of("3.00"), null));
+        store.put(new Order(2L, null, List.of(new OrderItem(4L, 3, Money.of("5.00"))), Money.of("15.00"), null));
+
+        Order stored = store.get(2L);
+
+        assertEquals(Money.of("15.00"), stored.getTotalAmount());
+        assertEquals(1, stored.getItems().size());
+        assertEquals(4L, stored.getItems().get(0).getProductId());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void remove_ShouldForgetOrderUntilItIsPutAgain() {
+        store.put(new Order(1L, null, List.of(new OrderItem(1L, 1, Money.of("1.00"))), Money.of("1.00"), null));
+        store.put(new Order(2L, null, null, Money.ZERO, null));
+
+        store.remove(1L);
+        store.remove(1L);
+        store.remove(99L);
+
+        assertNull(store.get(1L));
+        assertEquals(1, store.size());
+        assertEquals(List.of(2L), store.findPage(0, 10, 10).stream().map(Order::getId).toList());
+
+        store.put(new Order(1L, null, List.of(new OrderItem(3L, 2, Money.of("2.00"))), Money.of("4.00"), null));
+
+        assertEquals(3L, store.get(1L).getItems().get(0).getProductId());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void forEach_ShouldVisitEveryStoredOrder() {
+        for (long id = 1; id <= 5; id++) {
+            store.put(new Order(id, null, List.of(), Money.ofMinor(id), null));
+        }
+
+        Set<Long> visited = new HashSet<>();
+        store.forEach(order -> visited.add(order.getId()));
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), visited);
+        assertTrue(store.get(3L).getItems().isEmpty());
+    }
+
+    @Test
+    void put_UnderConcurrentLoad_ShouldKeepEveryOrderIntact() throws Exception {
+        int threads = 8;
+        int ordersPerThread = ordersPerThread();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        long id = (long) i * threads + thread + 1;
+                        store.put(new Order(id, null,
+                                Arrays.asList(new OrderItem(id, (int) (id % 7) + 1, Money.of("1.50"))), Money.ofMinor(id), null));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+
+            assertEquals((long) threads * ordersPerThread, store.size());
+            for (long id = 1; id <= (long) threads * ordersPerThread; id++) {
+                Order order = store.get(id);
+                assertEquals(Money.ofMinor(id), order.getTotalAmount());
+                assertEquals(id, order.getItems().get(0).getProductId());
+                assertEquals((int) (id % 7) + 1, order.getItems().get(0).getQuantity());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
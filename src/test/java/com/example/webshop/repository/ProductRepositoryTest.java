@@ -0,0 +1,127 @@
+package com.example.webshop.repository;
+
+import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.util.LongMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRepositoryTest {
+
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> { });
+    }
+
+    @Test
+    void tryReserveStock_WithEnoughStock_ShouldDecrementStock() {
+        int initialStock = productRepository.getStock(1L);
+
+        assertTrue(productRepository.tryReserveStock(1L, 5));
+        assertEquals(initialStock - 5, productRepository.getStock(1L));
+        assertEquals(initialStock - 5, productRepository.findById(1L).orElseThrow().getStock());
+    }
+
+    @Test
+    void findAllById_ShouldReturnKnownProductsWithCurrentStock() {
+        productRepository.tryReserveStock(2L, 3);
+
+        LongMap<Product> products = productRepository.findAllById(1L, 2L, 2L, 99L);
+
+        assertEquals(2, products.size());
+        assertEquals("Laptop", products.get(1L).getName());
+        assertEquals(productRepository.getStock(2L), products.get(2L).getStock());
+        assertNull(products.get(99L));
+    }
+
+    @Test
+    void tryReserveStock_WithInsufficientStock_ShouldLeaveStockUntouched() {
+        int initialStock = productRepository.getStock(1L);
+
+        assertFalse(productRepository.tryReserveStock(1L, initialStock + 1));
+        assertEquals(initialStock, productRepository.getStock(1L));
+    }
+
+    @Test
+    void releaseStock_ShouldReturnReservedUnits() {
+        int initialStock = productRepository.getStock(1L);
+
+        productRepository.tryReserveStock(1L, 4);
+        productRepository.releaseStock(1L, 4);
+
+        assertEquals(initialStock, productRepository.getStock(1L));
+    }
+
+    @Test
+    void releaseStock_AtLastVersion_ShouldWrapAroundAndStayNewer() {
+        productRepository.restoreStock(new StockLevel(1L, 10, 0xFFFFFFFFL));
+
+        productRepository.releaseStock(1L, 1);
+        productRepository.restoreStock(new StockLevel(1L, 3, 0xFFFFFFFEL));
+
+        StockLevel stockLevel = productRepository.getStockLevel(1L);
+        assertEquals(1, stockLevel.getVersion());
+        assertEquals(11, stockLevel.getStock());
+    }
+
+    @Test
+    void tryReserveStock_WithNonExistentProduct_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> productRepository.tryReserveStock(999L, 1));
+    }
+
+    @Test
+    void getStockContention_WithoutConcurrentUpdates_ShouldBeZero() {
+        productRepository.tryReserveStock(1L, 1);
+        productRepository.releaseStock(1L, 1);
+
+        assertEquals(0, productRepository.getStockContention(1L));
+    }
+
+    @Test
+    void tryReserveStock_UnderContention_ShouldNeverOversell() throws Exception {
+        int initialStock = productRepository.getStock(1L);
+        int threads = 16;
+        int attemptsPerThread = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int reserved = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (productRepository.tryReserveStock(1L, 1)) {
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            start.countDown();
+
+            int totalReserved = 0;
+            for (Future<Integer> result : results) {
+                totalReserved += result.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(initialStock, totalReserved);
+            assertEquals(0, productRepository.getStock(1L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.webshop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockCountersTest {
+
+    @Test
+    void add_BeyondOneChunk_ShouldKeepEarlierCountersIntact() {
+        StockCounters counters = new StockCounters();
+        int slots = 3000;
+        for (int i = 0; i < slots; i++) {
+            assertEquals(i, counters.add(i));
+        }
+
+        for (int i = 0; i < slots; i++) {
+            assertEquals(i, counters.get(i));
+        }
+    }
+
+    @Test
+    void compareAndSet_ShouldOnlyUpdateMatchingCounter() {
+        StockCounters counters = new StockCounters();
+        int first = counters.add(10);
+        int second = counters.add(20);
+
+        assertTrue(counters.compareAndSet(first, 10, 9));
+        assertFalse(counters.compareAndSet(second, 10, 9));
+        assertEquals(9, counters.get(first));
+        assertEquals(20, counters.get(second));
+    }
+}
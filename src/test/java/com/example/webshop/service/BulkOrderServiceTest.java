@@ -0,0 +1,202 @@
+package com.example.webshop.service;
+
+import com.example.webshop.metrics.CheckoutMetrics;
+import com.example.webshop.model.BulkOrderResult;
+import com.example.webshop.model.CustomerInfo;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.OrderRequest;
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.ReservationRequest;
+import com.example.webshop.persistence.PersistenceManager;
+import com.example.webshop.repository.HeapOrderStore;
+import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class BulkOrderServiceTest {
+
+    private ProductRepository productRepository;
+    private OrderRepository orderRepository;
+    private ProductService productService;
+    private OrderService orderService;
+    private ReservationService reservationService;
+    private BulkOrderService bulkOrderService;
+    private volatile boolean failSaves;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> { });
+        orderRepository = new OrderRepository(event -> {
+            if (failSaves) {
+                throw new IllegalStateException("Log unavailable");
+            }
+        }, new HeapOrderStore());
+        productService = new ProductService(productRepository);
+        reservationService = new ReservationService(productService, event -> { }, TimeUnit.MINUTES.toNanos(10),
+                TimeUnit.MILLISECONDS.toNanos(100), System::nanoTime);
+        orderService = new OrderService(orderRepository, productService,
+                new CheckoutMetrics(new SimpleMeterRegistry()), reservationService);
+        bulkOrderService = new BulkOrderService(orderService, productService,
+                new StaticListableBeanFactory().getBeanProvider(PersistenceManager.class), 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkOrderService.shutdown();
+        reservationService.shutdown();
+    }
+
+    @Test
+    void importOrders_ShouldReportOneResultPerOrderInSubmissionOrder() {
+        productRepository.updateStock(1L, 10);
+        productRepository.updateStock(2L, 10);
+
+        List<BulkOrderResult> results = importOrders(
+                order(1L, 2),
+                order(99L, 1),
+                order(2L, 3),
+                new OrderRequest(null, List.of(new OrderItemRequest(1L, 1))),
+                order(1L, 1));
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(201, results.get(2).getStatus());
+        assertEquals(400, results.get(3).getStatus());
+        assertEquals(201, results.get(4).getStatus());
+        assertEquals(3, orderRepository.count());
+        assertEquals(7, productRepository.getStock(1L));
+        assertEquals(7, productRepository.getStock(2L));
+    }
+
+    @Test
+    void importOrders_WhenChunkDemandExceedsStock_ShouldPlaceOrdersOneByOne() {
+        productRepository.updateStock(1L, 5);
+        productRepository.updateStock(2L, 10);
+
+        List<BulkOrderResult> results = importOrders(
+                new OrderRequest(customer(), Arrays.asList(
+                        new OrderItemRequest(1L, 4), new OrderItemRequest(2L, 1))),
+                new OrderRequest(customer(), Arrays.asList(
+                        new OrderItemRequest(1L, 4), new OrderItemRequest(2L, 1))));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(400, results.get(1).getStatus());
+        assertEquals(1, productRepository.getStock(1L));
+        assertEquals(9, productRepository.getStock(2L));
+    }
+
+    @Test
+    void importOrders_WhenOrderCannotBeSaved_ShouldReleaseItsStock() {
+        productRepository.updateStock(1L, 10);
+        failSaves = true;
+
+        List<BulkOrderResult> results = importOrders(order(1L, 2), order(1L, 3));
+
+        assertEquals(500, results.get(0).getStatus());
+        assertEquals(500, results.get(1).getStatus());
+        assertEquals(0, orderRepository.count());
+        assertEquals(10, productRepository.getStock(1L));
+    }
+
+    @Test
+    void importOrders_WhenSyncFails_ShouldStillReportPlacedOrdersAsNotDurable() throws IOException {
+        productRepository.updateStock(1L, 10);
+        PersistenceManager persistence = mock(PersistenceManager.class);
+        doThrow(new IOException("disk full")).when(persistence).sync();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("persistenceManager", persistence);
+        bulkOrderService.shutdown();
+        bulkOrderService = new BulkOrderService(orderService, productService,
+                beans.getBeanProvider(PersistenceManager.class), 2, 2);
+
+        List<BulkOrderResult> results = importOrders(order(1L, 2), order(99L, 1), order(1L, 3));
+
+        assertEquals(3, results.size());
+        assertEquals(202, results.get(0).getStatus());
+        assertNotNull(results.get(0).getOrder());
+        assertNotNull(results.get(0).getError());
+        assertEquals(404, results.get(1).getStatus());
+        assertEquals(202, results.get(2).getStatus());
+        assertEquals(2, orderRepository.count());
+    }
+
+    @Test
+    void importOrders_WhenStreamIsMalformed_ShouldPlaceOrdersReadSoFarAndStop() {
+        productRepository.updateStock(1L, 10);
+        Iterator<OrderRequest> requests = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public OrderRequest next() {
+                if (read++ == 3) {
+                    throw new IllegalArgumentException("Unexpected token");
+                }
+                return order(1L, 1);
+            }
+        };
+
+        List<BulkOrderResult> results = new ArrayList<>();
+        bulkOrderService.importOrders(requests, results::add);
+
+        assertEquals(4, results.size());
+        assertEquals(201, results.get(2).getStatus());
+        assertEquals(3, results.get(3).getIndex());
+        assertEquals(400, results.get(3).getStatus());
+        assertEquals(7, productRepository.getStock(1L));
+    }
+
+    @Test
+    void importOrders_WithReservation_ShouldConvertHoldWithoutTakingMoreStock() {
+        productRepository.updateStock(1L, 5);
+        Reservation reservation = reservationService.create(
+                new ReservationRequest(List.of(new OrderItemRequest(1L, 3))));
+        OrderRequest reserved = new OrderRequest(customer(), null);
+        reserved.setReservationId(reservation.getId());
+
+        List<BulkOrderResult> results = importOrders(reserved, order(1L, 2), order(1L, 1));
+
+        assertEquals(201, results.get(0).getStatus());
+        assertEquals(3, results.get(0).getOrder().getItems().get(0).getQuantity());
+        assertEquals(201, results.get(1).getStatus());
+        assertEquals(400, results.get(2).getStatus());
+        assertEquals(0, productRepository.getStock(1L));
+    }
+
+    private List<BulkOrderResult> importOrders(OrderRequest... requests) {
+        List<BulkOrderResult> results = new ArrayList<>();
+        bulkOrderService.importOrders(Arrays.asList(requests).iterator(), results::add);
+        return results;
+    }
+
+    private static OrderRequest order(Long productId, int quantity) {
+        return new OrderRequest(customer(), List.of(new OrderItemRequest(productId, quantity)));
+    }
+
+    private static CustomerInfo customer() {
+        return new CustomerInfo("Jane Doe", "Main Street 1", "jane@example.com");
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.IdempotencyKeyReusedException;
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.OrderNotDurableException;
+import com.example.webshop.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+    private static final long TTL = TimeUnit.SECONDS.toNanos(60);
+    private static final byte[] REQUEST = {1, 2, 3};
+
+    private SimpleMeterRegistry registry;
+    private AtomicLong clock;
+    private AtomicInteger placed;
+    private IdempotencyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = new AtomicLong();
+        placed = new AtomicInteger();
+        cache = new IdempotencyCache(registry, 3, TTL, clock::get);
+    }
+
+    @Test
+    void execute_WithRepeatedKey_ShouldReturnFirstOrderWithoutPlacingAgain() throws Exception {
+        IdempotencyCache.Result first = cache.execute("key-1", REQUEST, this::placeOrder);
+        IdempotencyCache.Result retry = cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertSame(first.getOrder().get(), retry.getOrder().get());
+        assertEquals(1, placed.get());
+        assertEquals(1.0, registry.get("webshop.idempotency.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get("webshop.idempotency.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void execute_WhileFirstRequestIsPending_ShouldCoalesceOntoSameFuture() throws Exception {
+        CompletableFuture<Order> pending = new CompletableFuture<>();
+        IdempotencyCache.Result first = cache.execute("key-1", REQUEST, () -> pending);
+        IdempotencyCache.Result duplicate = cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertFalse(duplicate.getOrder().isDone());
+        Order order = new Order();
+        pending.complete(order);
+
+        assertSame(order, first.getOrder().get());
+        assertSame(order, duplicate.getOrder().get());
+        assertEquals(0, placed.get());
+    }
+
+    @Test
+    void execute_WhenOrderFails_ShouldNotRememberFailure() {
+        IdempotencyCache.Result failed = cache.execute("key-1", REQUEST, () -> {
+            throw new InsufficientStockException(1L, 5, 2);
+        });
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.getOrder().get());
+        assertInstanceOf(InsufficientStockException.class, error.getCause());
+
+        IdempotencyCache.Result retry = cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertFalse(retry.isReplayed());
+        assertEquals(1, placed.get());
+    }
+
+    @Test
+    void execute_WhenOrderIsNotDurable_ShouldRememberIt() {
+        Order order = new Order();
+        order.setId(1L);
+        cache.execute("key-1", REQUEST, () -> CompletableFuture.failedFuture(
+                new OrderNotDurableException(order, new IOException("disk full"))));
+
+        IdempotencyCache.Result retry = cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertTrue(retry.isReplayed());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> retry.getOrder().get());
+        assertSame(order, assertInstanceOf(OrderNotDurableException.class, error.getCause()).getOrder());
+        assertEquals(0, placed.get());
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldPlaceOrderAgain() {
+        cache.execute("key-1", REQUEST, this::placeOrder);
+        clock.addAndGet(TTL);
+
+        IdempotencyCache.Result retry = cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertFalse(retry.isReplayed());
+        assertEquals(2, placed.get());
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldEvictOldestKeys() {
+        for (int i = 0; i < 5; i++) {
+            cache.execute("key-" + i, REQUEST, this::placeOrder);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(2.0, registry.get("webshop.idempotency.evictions").counter().count());
+        assertTrue(cache.execute("key-4", REQUEST, this::placeOrder).isReplayed());
+        assertFalse(cache.execute("key-0", REQUEST, this::placeOrder).isReplayed());
+    }
+
+    @Test
+    void execute_WithRepeatedKeyForDifferentRequest_ShouldThrow() {
+        cache.execute("key-1", REQUEST, this::placeOrder);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> cache.execute("key-1", new byte[]{3, 2, 1}, this::placeOrder));
+        assertEquals(1, placed.get());
+        assertTrue(cache.execute("key-1", REQUEST.clone(), this::placeOrder).isReplayed());
+    }
+
+    @Test
+    void execute_BeyondMaxEntries_ShouldNotEvictRunningSubmissions() {
+        CompletableFuture<Order> pending = new CompletableFuture<>();
+        IdempotencyCache.Result first = cache.execute("key-0", REQUEST, () -> pending);
+        for (int i = 1; i < 5; i++) {
+            cache.execute("key-" + i, REQUEST, this::placeOrder);
+        }
+
+        IdempotencyCache.Result duplicate = cache.execute("key-0", REQUEST, this::placeOrder);
+
+        assertTrue(duplicate.isReplayed());
+        assertSame(first.getOrder(), duplicate.getOrder());
+        assertEquals(3, cache.size());
+        assertFalse(cache.execute("key-1", REQUEST, this::placeOrder).isReplayed());
+    }
+
+    private CompletableFuture<Order> placeOrder() {
+        Order order = new Order();
+        order.setId((long) placed.incrementAndGet());
+        return CompletableFuture.completedFuture(order);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.ProductOverloadedException;
+import com.example.webshop.exception.RateLimitExceededException;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.StockLevel;
+import com.example.webshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderAdmissionTest {
+
+    private final AtomicLong clock = new AtomicLong(5_000_000_000L);
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> { });
+        productRepository.updateStock(1L, 10);
+        productRepository.updateStock(2L, 10);
+    }
+
+    @Test
+    void admit_WithUnknownProduct_ShouldLeaveItToTheOrder() {
+        OrderAdmission admission = new OrderAdmission(productRepository, 1, 0, 1, clock::get);
+
+        admission.admit(items(999L, 999L)).close();
+        admission.admit(items(999L)).close();
+    }
+
+    @Test
+    void admit_WithSoldOutProduct_ShouldRejectFromCachedFlag() {
+        ProductRepository repository = spy(productRepository);
+        OrderAdmission admission = new OrderAdmission(repository, 10, 0, 1, clock::get);
+        admission.admit(items(1L)).close();
+
+        admission.onStockChanged(new StockChangedEvent(new StockLevel(1L, 0, 100)));
+        clearInvocations(repository);
+
+        assertThrows(InsufficientStockException.class, () -> admission.admit(items(1L)));
+        verifyNoInteractions(repository);
+
+        admission.onStockChanged(new StockChangedEvent(new StockLevel(1L, 0, 99)));
+        admission.onStockChanged(new StockChangedEvent(new StockLevel(1L, 5, 101)));
+        admission.admit(items(1L)).close();
+    }
+
+    @Test
+    void admit_OverRate_ShouldRejectUntilTokenIsFree() {
+        OrderAdmission admission = new OrderAdmission(productRepository, 10, 2, 2, clock::get);
+
+        admission.admit(items(1L)).close();
+        admission.admit(items(1L)).close();
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+                () -> admission.admit(items(1L)));
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        admission.admit(items(2L)).close();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        admission.admit(items(1L)).close();
+        assertThrows(RateLimitExceededException.class, () -> admission.admit(items(1L)));
+    }
+
+    @Test
+    void admit_OverConcurrencyLimit_ShouldRejectUntilPermitIsClosed() {
+        OrderAdmission admission = new OrderAdmission(productRepository, 2, 0, 1, clock::get);
+
+        OrderAdmission.Permit first = admission.admit(items(1L));
+        OrderAdmission.Permit second = admission.admit(items(1L, 2L));
+        assertThrows(ProductOverloadedException.class, () -> admission.admit(items(2L, 1L)));
+        // The rejected request gave back its slot for product 2
+        admission.admit(items(2L)).close();
+
+        first.close();
+        first.close();
+        OrderAdmission.Permit third = admission.admit(items(1L));
+        assertThrows(ProductOverloadedException.class, () -> admission.admit(items(1L)));
+
+        second.close();
+        third.close();
+    }
+
+    @Test
+    void admit_WithRepeatedProduct_ShouldCountItOnce() {
+        OrderAdmission admission = new OrderAdmission(productRepository, 1, 1, 1, clock::get);
+
+        admission.admit(List.of(new OrderItemRequest(1L, 1), new OrderItemRequest(1L, 2))).close();
+
+        assertThrows(RateLimitExceededException.class, () -> admission.admit(items(1L)));
+    }
+
+    private static List<OrderItemRequest> items(Long... productIds) {
+        return Arrays.stream(productIds).map(id -> new OrderItemRequest(id, 1)).toList();
+    }
+}
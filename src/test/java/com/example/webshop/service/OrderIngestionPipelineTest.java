@@ -0,0 +1,109 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.OrderNotDurableException;
+import com.example.webshop.model.*;
+import com.example.webshop.persistence.PersistenceManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIngestionPipelineTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ObjectProvider<PersistenceManager> persistenceProvider;
+
+    @Mock
+    private PersistenceManager persistence;
+
+    private OrderIngestionPipeline pipeline;
+    private OrderRequest orderRequest;
+
+    @BeforeEach
+    void setUp() {
+        when(persistenceProvider.getIfAvailable()).thenReturn(persistence);
+        pipeline = new OrderIngestionPipeline(orderService, persistenceProvider, 64, 5, 1024);
+        orderRequest = new OrderRequest(new CustomerInfo("John Doe", "123 Main St", "john@example.com"),
+                Arrays.asList(new OrderItemRequest(1L, 1)));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void submit_ShouldCompleteEveryFutureAndSyncOncePerBatch() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(orderService.placeOrder(any(OrderRequest.class))).thenAnswer(invocation -> {
+            Order order = new Order();
+            order.setId(ids.incrementAndGet());
+            return order;
+        });
+
+        List<CompletableFuture<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pipeline.submit(orderRequest));
+        }
+        for (CompletableFuture<Order> future : futures) {
+            assertNotNull(future.get(5, TimeUnit.SECONDS).getId());
+        }
+
+        verify(orderService, times(200)).placeOrder(orderRequest);
+        verify(persistence, atLeast(1)).sync();
+        verify(persistence, atMost(100)).sync();
+    }
+
+    @Test
+    void submit_WhenPlacingFails_ShouldCompleteFutureExceptionally() {
+        when(orderService.placeOrder(any(OrderRequest.class))).thenThrow(new InsufficientStockException(1L, 1, 0));
+
+        CompletableFuture<Order> future = pipeline.submit(orderRequest);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientStockException.class, e.getCause());
+    }
+
+    @Test
+    void submit_WhenSyncFails_ShouldReportPlacedOrderAsNotDurable() throws Exception {
+        Order order = new Order();
+        order.setId(1L);
+        when(orderService.placeOrder(any(OrderRequest.class))).thenReturn(order);
+        doThrow(new IOException("disk full")).when(persistence).sync();
+
+        CompletableFuture<Order> future = pipeline.submit(orderRequest);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        OrderNotDurableException notDurable = assertInstanceOf(OrderNotDurableException.class, e.getCause());
+        assertSame(order, notDurable.getOrder());
+    }
+
+    @Test
+    void submit_AfterShutdown_ShouldBeRejected() throws InterruptedException {
+        pipeline.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(orderRequest));
+        verify(orderService, never()).placeOrder(any(OrderRequest.class));
+    }
+}
@@ -2,8 +2,12 @@ package com.example.webshop.service;
 
 import com.example.webshop.exception.InsufficientStockException;
 import com.example.webshop.exception.InvalidOrderException;
+import com.example.webshop.exception.InvalidRequestException;
+import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.metrics.CheckoutMetrics;
 import com.example.webshop.model.*;
 import com.example.webshop.repository.OrderRepository;
+import com.example.webshop.util.LongMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,9 +17,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +33,12 @@ class OrderServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private CheckoutMetrics checkoutMetrics;
+
+    @Mock
+    private ReservationService reservationService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -36,7 +48,7 @@ class OrderServiceTest {
 
     @BeforeEach
     void setUp() {
-        testProduct = new Product(1L, "Test Product", "Description", 100.0, "http://test.jpg", 10);
+        testProduct = new Product(1L, "Test Product", "Description", Money.of("100.00"), "http://test.jpg", 10);
         testCustomer = new CustomerInfo("John Doe", "123 Main St", "john@example.com");
         
         OrderItemRequest itemRequest = new OrderItemRequest(1L, 2);
@@ -45,7 +57,7 @@ class OrderServiceTest {
 
     @Test
     void createOrder_WithValidRequest_ShouldCreateOrder() {
-        when(productService.getProductById(1L)).thenReturn(testProduct);
+        when(productService.findAllById(1L)).thenReturn(products(testProduct));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(1L);
@@ -56,13 +68,14 @@ class OrderServiceTest {
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        assertEquals(200.0, result.getTotalAmount());
+        assertEquals(Money.of("200.00"), result.getTotalAmount());
         assertEquals(1, result.getItems().size());
         assertEquals(testCustomer.getName(), result.getCustomerInfo().getName());
         
-        verify(productService, times(1)).getProductById(1L);
-        verify(productService, times(1)).updateStock(1L, 8);
+        verify(productService, times(1)).findAllById(1L);
+        verify(productService, times(1)).reserveStock(1L, 2);
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(checkoutMetrics).recordCheckout(eq(1), anyLong(), eq(true));
     }
 
     @Test
@@ -70,10 +83,106 @@ class OrderServiceTest {
         OrderItemRequest itemRequest = new OrderItemRequest(1L, 20);
         OrderRequest orderRequest = new OrderRequest(testCustomer, Arrays.asList(itemRequest));
         
-        when(productService.getProductById(1L)).thenReturn(testProduct);
+        when(productService.findAllById(1L)).thenReturn(products(testProduct));
+        doThrow(new InsufficientStockException(1L, 20, 10)).when(productService).reserveStock(1L, 20);
 
         assertThrows(InsufficientStockException.class, () -> orderService.createOrder(orderRequest));
-        verify(productService, never()).updateStock(anyLong(), anyInt());
+        verify(productService, never()).releaseStock(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(checkoutMetrics).recordCheckout(eq(1), anyLong(), eq(false));
+    }
+
+    @Test
+    void createOrder_WithInsufficientStockForLaterItem_ShouldReleaseEarlierReservations() {
+        Product otherProduct = new Product(2L, "Other Product", "Description", Money.of("50.00"), "http://other.jpg", 1);
+        OrderRequest orderRequest = new OrderRequest(testCustomer,
+                Arrays.asList(new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 5)));
+
+        when(productService.findAllById(1L, 2L)).thenReturn(products(testProduct, otherProduct));
+        doNothing().when(productService).reserveStock(1L, 2);
+        doThrow(new InsufficientStockException(2L, 5, 1)).when(productService).reserveStock(2L, 5);
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(orderRequest));
+        verify(productService, times(1)).reserveStock(1L, 2);
+        verify(productService, times(1)).releaseStock(1L, 2);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WhenSaveFails_ShouldReleaseReservedStock() {
+        when(productService.findAllById(1L)).thenReturn(products(testProduct));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("log unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> orderService.createOrder(validOrderRequest));
+        verify(productService).reserveStock(1L, 2);
+        verify(productService).releaseStock(1L, 2);
+        verify(checkoutMetrics).recordCheckout(eq(1), anyLong(), eq(false));
+    }
+
+    @Test
+    void createOrder_WithRepeatedProduct_ShouldMergeLinesAndLookUpOnce() {
+        Product otherProduct = new Product(2L, "Other Product", "Description", Money.of("50.00"), "http://other.jpg", 10);
+        OrderRequest orderRequest = new OrderRequest(testCustomer, Arrays.asList(
+                new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 1), new OrderItemRequest(1L, 3)));
+
+        when(productService.findAllById(1L, 2L, 1L)).thenReturn(products(testProduct, otherProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.createOrder(orderRequest);
+
+        assertEquals(2, result.getItems().size());
+        assertEquals(1L, result.getItems().get(0).getProductId());
+        assertEquals(5, result.getItems().get(0).getQuantity());
+        assertEquals(Money.of("550.00"), result.getTotalAmount());
+        verify(productService, times(1)).reserveStock(1L, 5);
+        verify(productService, times(1)).reserveStock(2L, 1);
+        verify(productService, never()).getProductById(anyLong());
+    }
+
+    @Test
+    void createOrder_WithUnknownProduct_ShouldThrowException() {
+        when(productService.findAllById(1L)).thenReturn(products());
+
+        assertThrows(ProductNotFoundException.class, () -> orderService.createOrder(validOrderRequest));
+        verify(productService, never()).reserveStock(anyLong(), anyInt());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WithReservation_ShouldUseHeldItemsWithoutReservingStock() {
+        OrderRequest orderRequest = new OrderRequest(testCustomer, null);
+        orderRequest.setReservationId("hold-1");
+        when(reservationService.claim("hold-1")).thenReturn(List.of(new OrderItemRequest(1L, 3)));
+        when(productService.findAllById(1L)).thenReturn(products(testProduct));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order result = orderService.createOrder(orderRequest);
+
+        assertEquals(3, result.getItems().get(0).getQuantity());
+        assertEquals(Money.of("300.00"), result.getTotalAmount());
+        verify(productService, never()).reserveStock(anyLong(), anyInt());
+        verify(reservationService, never()).release(anyList());
+        verify(checkoutMetrics).recordCheckout(eq(1), anyLong(), eq(true));
+    }
+
+    @Test
+    void createOrder_WithReservationAndItems_ShouldThrowException() {
+        validOrderRequest.setReservationId("hold-1");
+
+        assertThrows(InvalidOrderException.class, () -> orderService.createOrder(validOrderRequest));
+        verify(reservationService, never()).claim(anyString());
+    }
+
+    @Test
+    void createOrder_WithReservationOfUnknownProduct_ShouldReleaseHeldStock() {
+        OrderRequest orderRequest = new OrderRequest(testCustomer, null);
+        orderRequest.setReservationId("hold-1");
+        List<OrderItemRequest> held = List.of(new OrderItemRequest(1L, 3));
+        when(reservationService.claim("hold-1")).thenReturn(held);
+        when(productService.findAllById(1L)).thenReturn(products());
+
+        assertThrows(ProductNotFoundException.class, () -> orderService.createOrder(orderRequest));
+        verify(reservationService).release(held);
         verify(orderRepository, never()).save(any(Order.class));
     }
 
@@ -132,4 +241,68 @@ class OrderServiceTest {
         assertThrows(InvalidOrderException.class, () -> orderService.createOrder(orderRequest));
         verify(orderRepository, never()).save(any(Order.class));
     }
+
+    @Test
+    void getOrders_WithFullPage_ShouldReturnCursorOfLastOrder() {
+        Order first = new Order();
+        first.setId(1L);
+        Order second = new Order();
+        second.setId(2L);
+        when(orderRepository.findPage(0L, 2)).thenReturn(Arrays.asList(first, second));
+
+        OrderPage page = orderService.getOrders(null, 2);
+
+        assertEquals(2, page.getOrders().size());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void getOrders_WithPartialPage_ShouldReturnCursorToResumeFrom() {
+        Order order = new Order();
+        order.setId(3L);
+        when(orderRepository.findPage(2L, OrderService.MAX_PAGE_SIZE)).thenReturn(Arrays.asList(order));
+
+        OrderPage page = orderService.getOrders(2L, 10_000);
+
+        assertEquals(1, page.getOrders().size());
+        assertEquals(3L, page.getNextCursor());
+    }
+
+    @Test
+    void getOrders_WithEmptyPage_ShouldReturnNoCursor() {
+        when(orderRepository.findPage(3L, 10)).thenReturn(List.of());
+
+        OrderPage page = orderService.getOrders(3L, 10);
+
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getCustomerOrders_WithFullPage_ShouldReturnCursorOfOldestOrder() {
+        Order newer = new Order();
+        newer.setId(7L);
+        Order older = new Order();
+        older.setId(4L);
+        when(orderRepository.findPageByCustomerEmail("ann@example.com", null, 2))
+                .thenReturn(Arrays.asList(newer, older));
+
+        OrderPage page = orderService.getCustomerOrders("ann@example.com", null, 2);
+
+        assertEquals(2, page.getOrders().size());
+        assertEquals(4L, page.getNextCursor());
+    }
+
+    @Test
+    void getCustomerOrders_WithBlankEmail_ShouldThrowException() {
+        assertThrows(InvalidRequestException.class, () -> orderService.getCustomerOrders(" ", null, 10));
+    }
+
+    private static LongMap<Product> products(Product... products) {
+        LongMap<Product> result = new LongMap<>(products.length);
+        for (Product product : products) {
+            result.put(product.getId(), product);
+        }
+        return result;
+    }
 }
@@ -0,0 +1,145 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.StockChangedEvent;
+import com.example.webshop.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProductRepository productRepository;
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> {
+            if (event instanceof StockChangedEvent stockChanged) {
+                productCatalog.onStockChanged(stockChanged);
+            }
+        });
+        productCatalog = new ProductCatalog(productRepository, objectMapper, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productCatalog.shutdown();
+    }
+
+    @Test
+    void current_WithoutChanges_ShouldReturnSameSnapshot() {
+        CatalogSnapshot first = productCatalog.current();
+
+        assertSame(first, productCatalog.current());
+    }
+
+    @Test
+    void current_ShouldRenderAllProductsAsJsonArray() throws IOException {
+        JsonNode catalog = objectMapper.readTree(productCatalog.current().getJson());
+
+        assertEquals(productRepository.findAll().size(), catalog.size());
+        assertEquals("Laptop", catalog.get(0).get("name").asText());
+    }
+
+    @Test
+    void getJson_WithIds_ShouldRenderRequestedProductsInOrder() throws IOException {
+        JsonNode products = objectMapper.readTree(productCatalog.current().getJson(new long[]{3, 1, 99, 3}));
+
+        assertEquals(2, products.size());
+        assertEquals(3, products.get(0).get("id").asLong());
+        assertEquals(1, products.get(1).get("id").asLong());
+    }
+
+    @Test
+    void current_AfterStockChange_ShouldRebuildOnlyChangedProduct() throws IOException {
+        CatalogSnapshot before = productCatalog.current();
+
+        productRepository.tryReserveStock(1L, 2);
+        CatalogSnapshot after = productCatalog.current();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertNotEquals(before.getEntry(1L).getEtag(), after.getEntry(1L).getEtag());
+        assertSame(before.getEntry(2L), after.getEntry(2L));
+        JsonNode laptop = objectMapper.readTree(after.getEntry(1L).getJson());
+        assertEquals(productRepository.getStock(1L), laptop.get("stock").asInt());
+    }
+
+    @Test
+    void current_WithStalenessBound_ShouldServePublishedSnapshotUntilNextPublish() {
+        productCatalog = new ProductCatalog(productRepository, objectMapper, TimeUnit.MINUTES.toMillis(10));
+        CatalogSnapshot before = productCatalog.current();
+
+        productRepository.tryReserveStock(1L, 2);
+        assertSame(before, productCatalog.current());
+
+        productCatalog.publish();
+        CatalogSnapshot after = productCatalog.current();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertSame(after, productCatalog.current());
+    }
+
+    @Test
+    void publisher_ShouldPublishChangeWithinStalenessBound() throws Exception {
+        productCatalog = new ProductCatalog(productRepository, objectMapper, 50);
+        CatalogSnapshot before = productCatalog.current();
+
+        productRepository.tryReserveStock(1L, 2);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (productCatalog.current() == before && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(before.getVersion() + 1, productCatalog.current().getVersion());
+    }
+
+    @Test
+    void publish_ShouldFoldChangesIntoOneVersion() throws IOException {
+        productCatalog = new ProductCatalog(productRepository, objectMapper, TimeUnit.MINUTES.toMillis(10));
+        CatalogSnapshot before = productCatalog.current();
+
+        productRepository.tryReserveStock(1L, 1);
+        productRepository.tryReserveStock(1L, 1);
+        productRepository.tryReserveStock(2L, 3);
+        productCatalog.publish();
+        CatalogSnapshot after = productCatalog.current();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(productRepository.getStock(1L),
+                objectMapper.readTree(after.getEntry(1L).getJson()).get("stock").asInt());
+        assertEquals(productRepository.getStock(2L),
+                objectMapper.readTree(after.getEntry(2L).getJson()).get("stock").asInt());
+        assertSame(before.getEntry(3L), after.getEntry(3L));
+
+        productCatalog.publish();
+        assertSame(after, productCatalog.current());
+    }
+
+    @Test
+    void current_AfterRestartWithSameStockVersions_ShouldUseDifferentEtags() {
+        ProductCatalog restarted = new ProductCatalog(new ProductRepository(event -> { }), objectMapper, 0);
+        try {
+            CatalogSnapshot before = productCatalog.current();
+            CatalogSnapshot after = restarted.current();
+
+            assertEquals(before.getVersion(), after.getVersion());
+            assertNotEquals(before.getEtag(), after.getEtag());
+            assertNotEquals(before.getEntry(1L).getEtag(), after.getEntry(1L).getEtag());
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void getEntry_WithUnknownProduct_ShouldReturnNull() {
+        assertNull(productCatalog.current().getEntry(999L));
+    }
+}
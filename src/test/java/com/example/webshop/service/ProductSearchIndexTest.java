@@ -0,0 +1,82 @@
+package com.example.webshop.service;
+
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Product;
+import com.example.webshop.model.StockLevel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(List.of(
+                new Product(3L, "Wireless Mouse", "Ergonomic mouse", Money.of("499.99"), null, 10),
+                new Product(1L, "Wireless Headphones", "Noise-cancelling headphones", Money.of("1999.99"), null, 0),
+                new Product(2L, "Mechanical Keyboard", "Wired keyboard for gaming", Money.of("899.99"), null, 5),
+                new Product(4L, "Gaming Mouse", "Wired mouse with RGB", Money.of("699.99"), null, 7)));
+    }
+
+    @Test
+    void search_WithWords_ShouldMatchEveryWordAsPrefix() {
+        assertArrayEquals(new long[]{1, 3}, ids(index.search("wireless", null, null, false, 0, 10)));
+        assertArrayEquals(new long[]{3, 4}, ids(index.search("MOUS", null, null, false, 0, 10)));
+        assertArrayEquals(new long[]{4}, ids(index.search("gaming mouse", null, null, false, 0, 10)));
+        assertArrayEquals(new long[]{1, 2, 3, 4}, ids(index.search("wire", null, null, false, 0, 10)));
+        assertEquals(0, index.search("tablet", null, null, false, 0, 10).getTotal());
+    }
+
+    @Test
+    void search_WithFilters_ShouldApplyPriceRangeAndStock() {
+        assertArrayEquals(new long[]{2, 4}, ids(index.search(null, Money.of("600"), Money.of("900"), false, 0, 10)));
+        assertArrayEquals(new long[]{3, 4}, ids(index.search("mouse", null, Money.of("699.99"), false, 0, 10)));
+        assertArrayEquals(new long[]{2, 3, 4}, ids(index.search("", null, null, true, 0, 10)));
+        assertEquals(0, index.search(null, Money.of("900"), Money.of("600"), false, 0, 10).getTotal());
+    }
+
+    @Test
+    void search_WithCursor_ShouldPageInIdOrder() {
+        ProductSearchIndex.Hits first = index.search(null, null, null, false, Long.MIN_VALUE, 3);
+        ProductSearchIndex.Hits second = index.search(null, null, null, false, first.getNextCursor(), 3);
+
+        assertEquals(4, first.getTotal());
+        assertArrayEquals(new long[]{1, 2, 3}, ids(first));
+        assertEquals(3L, first.getNextCursor());
+        assertArrayEquals(new long[]{4}, ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void updateStock_ShouldIgnoreOlderLevels() {
+        index.updateStock(new StockLevel(1L, 4, 2));
+        index.updateStock(new StockLevel(3L, 0, 2));
+        index.updateStock(new StockLevel(1L, 0, 1));
+
+        assertArrayEquals(new long[]{1, 2, 4}, ids(index.search(null, null, null, true, 0, 10)));
+    }
+
+    @Test
+    void search_WithManyProducts_ShouldCountAcrossBitsetWords() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            products.add(new Product(id, id % 2 == 0 ? "Even item" : "Odd item", "", Money.ofMinor(id * 100), null, (int) (id % 3)));
+        }
+        ProductSearchIndex large = new ProductSearchIndex(products);
+
+        assertEquals(100, large.search("even", null, null, false, 0, 10).getTotal());
+        assertEquals(200, large.search("item", null, null, false, 0, 10).getTotal());
+        assertEquals(134, large.search("item", null, null, true, 0, 10).getTotal());
+        assertEquals(50, large.search(null, Money.of("101"), Money.of("150"), false, 0, 100).getTotal());
+    }
+
+    private static long[] ids(ProductSearchIndex.Hits hits) {
+        return hits.getProductIds();
+    }
+}
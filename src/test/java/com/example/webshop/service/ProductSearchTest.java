@@ -0,0 +1,38 @@
+package com.example.webshop.service;
+
+import com.example.webshop.exception.InvalidRequestException;
+import com.example.webshop.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchTest {
+
+    private ProductRepository productRepository;
+    private ProductSearch productSearch;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> { });
+        productSearch = new ProductSearch(productRepository);
+    }
+
+    @Test
+    void search_WithPriceBoundBeyondMoneyRange_ShouldThrowInvalidRequest() {
+        assertThrows(InvalidRequestException.class, () ->
+                productSearch.search(null, new BigDecimal("1e17"), null, false, null, 10));
+        assertThrows(InvalidRequestException.class, () ->
+                productSearch.search(null, null, new BigDecimal("-1e999999999"), false, null, 10));
+    }
+
+    @Test
+    void search_WithWidestPriceBounds_ShouldMatchEveryProduct() {
+        BigDecimal max = new BigDecimal("92233720368547758.07");
+
+        assertEquals(productRepository.count(),
+                productSearch.search(null, max.negate(), max, false, null, 100).getTotal());
+    }
+}
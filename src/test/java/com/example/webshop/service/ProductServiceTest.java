@@ -1,6 +1,8 @@
 package com.example.webshop.service;
 
+import com.example.webshop.exception.InsufficientStockException;
 import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.model.Money;
 import com.example.webshop.model.Product;
 import com.example.webshop.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,7 +32,7 @@ class ProductServiceTest {
 
     @BeforeEach
     void setUp() {
-        testProduct = new Product(1L, "Test Product", "Test Description", 99.99, "http://test.jpg", 10);
+        testProduct = new Product(1L, "Test Product", "Test Description", Money.of("99.99"), "http://test.jpg", 10);
     }
 
     @Test
@@ -71,4 +73,28 @@ class ProductServiceTest {
 
         verify(productRepository, times(1)).updateStock(1L, 5);
     }
+
+    @Test
+    void reserveStock_WhenStockIsAvailable_ShouldReserve() {
+        when(productRepository.tryReserveStock(1L, 3)).thenReturn(true);
+
+        productService.reserveStock(1L, 3);
+
+        verify(productRepository, times(1)).tryReserveStock(1L, 3);
+    }
+
+    @Test
+    void reserveStock_WhenStockIsInsufficient_ShouldThrowException() {
+        when(productRepository.tryReserveStock(1L, 30)).thenReturn(false);
+        when(productRepository.getStock(1L)).thenReturn(10);
+
+        assertThrows(InsufficientStockException.class, () -> productService.reserveStock(1L, 30));
+    }
+
+    @Test
+    void releaseStock_ShouldReturnUnitsToRepository() {
+        productService.releaseStock(1L, 3);
+
+        verify(productRepository, times(1)).releaseStock(1L, 3);
+    }
 }
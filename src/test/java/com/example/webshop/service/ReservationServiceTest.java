@@ -0,0 +1,201 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.ReservationCreatedEvent;
+import com.example.webshop.event.ReservationEndedEvent;
+import com.example.webshop.exception.InsufficientStockException;
+import com.example.webshop.exception.ProductNotFoundException;
+import com.example.webshop.exception.ReservationNotFoundException;
+import com.example.webshop.model.OrderItemRequest;
+import com.example.webshop.model.Reservation;
+import com.example.webshop.model.ReservationRequest;
+import com.example.webshop.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationServiceTest {
+    private static final long HOLD_NANOS = 60_000;
+    private static final long TICK_NANOS = 1_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<Object> events = new ArrayList<>();
+    private boolean failEnds;
+    private ProductRepository productRepository;
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = new ProductRepository(event -> { });
+        productRepository.updateStock(1L, 10);
+        productRepository.updateStock(2L, 2);
+        reservationService = new ReservationService(new ProductService(productRepository), event -> {
+            if (failEnds && event instanceof ReservationEndedEvent) {
+                throw new IllegalStateException("Log unavailable");
+            }
+            events.add(event);
+        }, HOLD_NANOS, TICK_NANOS,
+                clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservationService.shutdown();
+    }
+
+    @Test
+    void create_ShouldHoldStockForMergedLines() {
+        Reservation reservation = reservationService.create(request(
+                new OrderItemRequest(1L, 2), new OrderItemRequest(2L, 1), new OrderItemRequest(1L, 3)));
+
+        assertEquals(2, reservation.getItems().size());
+        assertEquals(5, reservation.getItems().get(0).getQuantity());
+        assertEquals(5, productRepository.getStock(1L));
+        assertEquals(1, productRepository.getStock(2L));
+        assertEquals(reservation.getId(), reservationService.get(reservation.getId()).getId());
+    }
+
+    @Test
+    void create_WithInsufficientStock_ShouldHoldNothing() {
+        assertThrows(InsufficientStockException.class, () -> reservationService.create(request(
+                new OrderItemRequest(1L, 4), new OrderItemRequest(2L, 3))));
+
+        assertEquals(10, productRepository.getStock(1L));
+        assertEquals(2, productRepository.getStock(2L));
+        assertEquals(0, reservationService.size());
+    }
+
+    @Test
+    void create_WithUnknownProduct_ShouldHoldNothing() {
+        assertThrows(ProductNotFoundException.class, () -> reservationService.create(request(
+                new OrderItemRequest(1L, 4), new OrderItemRequest(999L, 1))));
+
+        assertEquals(10, productRepository.getStock(1L));
+        assertEquals(0, reservationService.size());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void create_AndRelease_ShouldPublishCreationAndEnd() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(1L, 4)));
+        reservationService.release(reservation.getId());
+
+        assertEquals(2, events.size());
+        ReservationCreatedEvent created = assertInstanceOf(ReservationCreatedEvent.class, events.get(0));
+        assertEquals(reservation.getId(), created.getReservation().getId());
+        assertEquals(reservation.getId(), assertInstanceOf(ReservationEndedEvent.class, events.get(1)).getReservationId());
+    }
+
+    @Test
+    void restore_ShouldHoldRecoveredStockUntilOriginalExpiry() {
+        productRepository.tryReserveStock(1L, 4);
+        productRepository.tryReserveStock(2L, 1);
+
+        reservationService.restore(List.of(
+                new Reservation("open", List.of(new OrderItemRequest(1L, 4)), LocalDateTime.now().plusHours(1)),
+                new Reservation("expired", List.of(new OrderItemRequest(2L, 1)), LocalDateTime.now().minusSeconds(1))));
+        assertEquals(6, productRepository.getStock(1L));
+        assertEquals(1, productRepository.getStock(2L));
+        assertTrue(events.isEmpty());
+
+        clock.addAndGet(TICK_NANOS);
+        reservationService.expireDue();
+
+        assertEquals(1, reservationService.getReservations().size());
+        assertEquals(6, productRepository.getStock(1L));
+        assertEquals(2, productRepository.getStock(2L));
+        assertEquals("expired", assertInstanceOf(ReservationEndedEvent.class, events.get(0)).getReservationId());
+        assertEquals(4, reservationService.claim("open").get(0).getQuantity());
+    }
+
+    @Test
+    void expireDue_AfterHoldTime_ShouldReturnStock() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(1L, 4)));
+
+        clock.addAndGet(HOLD_NANOS - TICK_NANOS);
+        reservationService.expireDue();
+        assertEquals(6, productRepository.getStock(1L));
+
+        clock.addAndGet(TICK_NANOS);
+        reservationService.expireDue();
+        assertEquals(10, productRepository.getStock(1L));
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.get(reservation.getId()));
+    }
+
+    @Test
+    void claim_ShouldTakeOverStockExactlyOnce() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(1L, 4)));
+
+        List<OrderItemRequest> items = reservationService.claim(reservation.getId());
+        clock.addAndGet(HOLD_NANOS);
+        reservationService.expireDue();
+
+        assertEquals(4, items.get(0).getQuantity());
+        assertEquals(6, productRepository.getStock(1L));
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.claim(reservation.getId()));
+    }
+
+    @Test
+    void claim_AfterDeadlineBeforeTick_ShouldReleaseStockAndThrow() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(1L, 4)));
+
+        clock.addAndGet(HOLD_NANOS);
+
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.claim(reservation.getId()));
+        assertEquals(10, productRepository.getStock(1L));
+        reservationService.expireDue();
+        assertEquals(10, productRepository.getStock(1L));
+    }
+
+    @Test
+    void claim_WhenEndCannotBePublished_ShouldKeepHold() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(1L, 4)));
+        failEnds = true;
+
+        assertThrows(IllegalStateException.class, () -> reservationService.claim(reservation.getId()));
+        failEnds = false;
+
+        assertEquals(6, productRepository.getStock(1L));
+        assertEquals(1, reservationService.size());
+        reservationService.release(reservation.getId());
+        assertEquals(10, productRepository.getStock(1L));
+    }
+
+    @Test
+    void expireDue_WhenEndCannotBePublished_ShouldRetryOnNextTick() {
+        reservationService.create(request(new OrderItemRequest(1L, 4)));
+        failEnds = true;
+        clock.addAndGet(HOLD_NANOS + TICK_NANOS);
+
+        reservationService.expireDue();
+        assertEquals(6, productRepository.getStock(1L));
+        assertEquals(1, reservationService.size());
+
+        failEnds = false;
+        clock.addAndGet(TICK_NANOS);
+        reservationService.expireDue();
+        assertEquals(10, productRepository.getStock(1L));
+        assertEquals(0, reservationService.size());
+    }
+
+    @Test
+    void release_ShouldReturnStockOnce() {
+        Reservation reservation = reservationService.create(request(new OrderItemRequest(2L, 2)));
+
+        reservationService.release(reservation.getId());
+
+        assertEquals(2, productRepository.getStock(2L));
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.release(reservation.getId()));
+        assertEquals(2, productRepository.getStock(2L));
+    }
+
+    private static ReservationRequest request(OrderItemRequest... items) {
+        return new ReservationRequest(List.of(items));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.webshop.service;
+
+import com.example.webshop.event.OrderCreatedEvent;
+import com.example.webshop.model.MinuteSales;
+import com.example.webshop.model.Money;
+import com.example.webshop.model.Order;
+import com.example.webshop.model.OrderItem;
+import com.example.webshop.model.ProductSales;
+import com.example.webshop.model.SalesSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesAnalyticsTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final AtomicLong clock = new AtomicLong(START.toInstant(ZoneOffset.UTC).toEpochMilli());
+    private final SalesAnalytics analytics = new SalesAnalytics(5, clock::get, ZoneOffset.UTC);
+
+    @Test
+    void getSummary_ShouldAddUpOrdersInWindow() {
+        place(START, new OrderItem(1L, 2, Money.of("10.00")), new OrderItem(2L, 1, Money.of("0.50")));
+        place(START.plusSeconds(30), new OrderItem(1L, 1, Money.of("10.00")));
+        advanceMinutes(1);
+        place(START.plusMinutes(1), new OrderItem(2L, 3, Money.of("0.50")));
+
+        SalesSummary lastMinute = analytics.getSummary(1);
+        assertEquals(1, lastMinute.getOrders());
+        assertEquals(3, lastMinute.getUnitsSold());
+        assertEquals(Money.of("1.50"), lastMinute.getRevenue());
+        assertEquals(START.plusMinutes(1), lastMinute.getFrom());
+
+        SalesSummary window = analytics.getSummary(60);
+        assertEquals(3, window.getOrders());
+        assertEquals(7, window.getUnitsSold());
+        assertEquals(Money.of("32.00"), window.getRevenue());
+        assertEquals(0.6, window.getOrdersPerMinute(), 1e-9);
+
+        SalesSummary sinceStartup = analytics.getSummary(null);
+        assertEquals(START, sinceStartup.getFrom());
+        assertEquals(3, sinceStartup.getOrders());
+        assertEquals(3.0, sinceStartup.getOrdersPerMinute(), 1e-9);
+    }
+
+    @Test
+    void getSalesPerMinute_ShouldDropMinutesThatLeftTheWindow() {
+        place(START, new OrderItem(1L, 1, Money.of("1.00")));
+        advanceMinutes(2);
+        place(START.plusMinutes(2), new OrderItem(1L, 2, Money.of("1.00")));
+        advanceMinutes(4);
+        place(START.plusMinutes(6), new OrderItem(1L, 4, Money.of("1.00")));
+        // Older than the minute now held in its slot
+        place(START.plusMinutes(1), new OrderItem(1L, 8, Money.of("1.00")));
+
+        List<MinuteSales> minutes = analytics.getSalesPerMinute(5);
+
+        assertEquals(5, minutes.size());
+        assertEquals(START.plusMinutes(2), minutes.get(0).getMinute());
+        assertEquals(List.of(2L, 0L, 0L, 0L, 4L), minutes.stream().map(MinuteSales::getUnitsSold).toList());
+        assertEquals(15, analytics.getSummary(null).getUnitsSold());
+    }
+
+    @Test
+    void getTopProducts_ShouldRankByRequestedMeasure() {
+        place(START, new OrderItem(1L, 1, Money.of("100.00")), new OrderItem(2L, 5, Money.of("1.00")));
+        place(START, new OrderItem(3L, 2, Money.of("10.00")), new OrderItem(2L, 5, Money.of("1.00")));
+
+        List<ProductSales> byRevenue = analytics.getTopProducts(5, 2, false);
+        assertEquals(List.of(1L, 3L), byRevenue.stream().map(ProductSales::getProductId).toList());
+        assertEquals(Money.of("100.00"), byRevenue.get(0).getRevenue());
+
+        List<ProductSales> byUnits = analytics.getTopProducts(null, 10, true);
+        assertEquals(List.of(2L, 3L, 1L), byUnits.stream().map(ProductSales::getProductId).toList());
+        assertEquals(2, byUnits.get(0).getOrders());
+        assertEquals(10, byUnits.get(0).getUnitsSold());
+    }
+
+    private void place(LocalDateTime orderDate, OrderItem... items) {
+        Order order = new Order(1L, null, Arrays.asList(items), Money.ZERO, orderDate);
+        analytics.onOrderCreated(new OrderCreatedEvent(order));
+    }
+
+    private void advanceMinutes(int minutes) {
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(minutes));
+    }
+}
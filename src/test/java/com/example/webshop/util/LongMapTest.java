@@ -0,0 +1,52 @@
+package com.example.webshop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongMapTest {
+
+    @Test
+    void put_ShouldReplaceValueOfExistingKey() {
+        LongMap<String> map = new LongMap<>();
+
+        assertNull(map.put(7L, "first"));
+        assertEquals("first", map.put(7L, "second"));
+        assertEquals("second", map.get(7L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void get_WithMissingKey_ShouldReturnNull() {
+        LongMap<String> map = new LongMap<>();
+        map.put(0L, "zero");
+
+        assertNull(map.get(1L));
+        assertFalse(map.containsKey(-1L));
+        assertTrue(map.containsKey(0L));
+    }
+
+    @Test
+    void put_BeyondInitialCapacity_ShouldKeepAllEntries() {
+        LongMap<Long> map = new LongMap<>(2);
+        for (long key = -500; key < 500; key++) {
+            map.put(key * 1_000_003L, key);
+        }
+
+        assertEquals(1000, map.size());
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(1000, visited.size());
+        for (long key = -500; key < 500; key++) {
+            assertEquals(key, map.get(key * 1_000_003L));
+        }
+    }
+
+    @Test
+    void put_WithNullValue_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new LongMap<String>().put(1L, null));
+    }
+}
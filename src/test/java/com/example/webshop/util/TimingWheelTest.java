@@ -0,0 +1,83 @@
+package com.example.webshop.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_ShouldFireTimeoutsOnceTheirDeadlineIsReached() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("late", 95);
+        wheel.schedule("early", 20);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(19, fired::add);
+        assertEquals(List.of(), fired);
+
+        wheel.advance(20, fired::add);
+        assertEquals(List.of("early"), fired);
+
+        wheel.advance(99, fired::add);
+        assertEquals(List.of("early"), fired);
+
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("early", "late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_WithDeadlinesOnHigherLevels_ShouldCascadeAndFireOnTime() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        long[] deadlines = {1, 63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 300_001, 16_000_000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        List<Long> fired = new ArrayList<>();
+
+        for (long deadline : deadlines) {
+            wheel.advance(deadline - 1, fired::add);
+            assertFalse(fired.contains(deadline), "fired early: " + deadline);
+            wheel.advance(deadline, fired::add);
+            assertEquals(deadline, fired.get(fired.size() - 1));
+        }
+        assertEquals(deadlines.length, fired.size());
+    }
+
+    @Test
+    void cancel_ShouldKeepTimeoutFromFiring() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 5_000);
+        wheel.schedule("kept", 5_000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        List<String> fired = new ArrayList<>();
+        wheel.advance(5_000, fired::add);
+
+        assertEquals(List.of("kept"), fired);
+    }
+
+    @Test
+    void schedule_WithPastDeadline_ShouldFireOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1_000);
+        wheel.advance(1_500, value -> { });
+        wheel.schedule("overdue", 1_200);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(1_510, fired::add);
+
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    @Test
+    void schedule_BeyondRange_ShouldThrowException() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule("far", 1L << 24));
+    }
+}